@@ -0,0 +1,378 @@
+package com.echoesofcommand;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures how much heap the main data structures retain, using synthetic populations, and checks
+ * each result against a per-item budget.
+ * <p>
+ * Each measurement builds a population, settles the heap with repeated full collections, releases the
+ * population, settles the heap again, and divides the drop in used heap by the population size. The
+ * result is the retained size per item, including everything the item owns but not data it shares
+ * with others, such as catalog levels referenced by a game. Populations are:
+ * <ul>
+ *     <li>{@code player}: a {@link PlayerRecord} with logins, bests for several leaders and a session history</li>
+ *     <li>{@code player-indexes}: the rankings and username index entries for one of those players</li>
+ *     <li>{@code level}: one {@link Level} of a {@link Leader} tree, with its choices and text</li>
+ *     <li>{@code catalog-level}: one level's share of a {@link ContentCatalog}, including its search index</li>
+ *     <li>{@code archive-row}: one archived answer in {@link ArchiveColumns}</li>
+ *     <li>{@code game}: one concurrent {@link Game} waiting for an answer on its own virtual thread</li>
+ * </ul>
+ * Budgets are bytes per item, read from {@code footprint-budgets.json} on the classpath or from a given
+ * file; a population without a budget is reported but not checked. Population sizes are set with the
+ * {@code eoc.footprint.*} system properties. Results are only meaningful with a single-threaded
+ * collector and no other activity in the JVM, so this runs on its own through {@link #main}.
+ * <p>
+ * The harness lives outside the application sources and is compiled only by the
+ * {@code memory-footprint} Maven profile, so it never ships in the game's jar.
+ */
+public class MemoryFootprint {
+    private static final String BUDGETS_RESOURCE = "footprint-budgets.json";
+    private static final String PLAYERS_PROPERTY = "eoc.footprint.players";
+    private static final String LEVELS_PROPERTY = "eoc.footprint.levels";
+    private static final String ARCHIVE_ROWS_PROPERTY = "eoc.footprint.archive.rows";
+    private static final String GAMES_PROPERTY = "eoc.footprint.games";
+    private static final String[] LEADERS = {"Charles de Gaulle", "Winston Churchill", "Napoleon Bonaparte",
+            "Abraham Lincoln", "Queen Elizabeth I", "Julius Caesar"};
+    private static final int LEVELS_PER_LEADER = 20;
+    private static final int MAX_SETTLE_ROUNDS = 10;
+    /** Vocabulary for synthetic level text, so the search index sees a realistic number of distinct words. */
+    private static final String[] WORDS = ("the army crossed river at dawn while government debated treaty terms "
+            + "general ordered retreat parliament voted war alliance with france britain empire collapsed "
+            + "rebellion spread across provinces king abdicated crown navy blockade ports famine reform "
+            + "constitution signed election republic resistance occupation liberation speech radio").split(" ");
+
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+    private final Map<String, Long> budgets;
+    private final Random random = new Random(42);
+
+    /**
+     * The retained heap of one population.
+     * @param name The population name, as used in the budgets.
+     * @param items The number of items built.
+     * @param retainedBytes The drop in used heap when the population was released.
+     * @param budget The allowed bytes per item, or -1 if there is none.
+     */
+    public record Measurement(String name, long items, long retainedBytes, long budget) {
+        /**
+         * Gets the retained size of one item.
+         * @return The bytes per item, rounded down.
+         */
+        public long bytesPerItem() {
+            return items == 0 ? 0 : retainedBytes / items;
+        }
+
+        /**
+         * Checks the result against its budget.
+         * @return True if there is no budget or the bytes per item are within it.
+         */
+        public boolean withinBudget() {
+            return budget < 0 || bytesPerItem() <= budget;
+        }
+    }
+
+    /**
+     * Creates a suite with the given budgets.
+     * @param budgets Allowed bytes per item by population name.
+     */
+    public MemoryFootprint(Map<String, Long> budgets) {
+        this.budgets = budgets;
+    }
+
+    /**
+     * Measures every population and exits with status 1 if any is over its budget.
+     * @param args An optional budgets file; the packaged budgets are used without one.
+     */
+    public static void main(String[] args) {
+        List<Measurement> results;
+        try {
+            results = new MemoryFootprint(loadBudgets(args.length > 0 ? Path.of(args[0]) : null)).run();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error measuring memory footprint: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        boolean within = true;
+        for (Measurement m : results) {
+            if (!m.withinBudget()) {
+                System.err.println("Error: " + m.name() + " x" + m.items() + " retains " + m.bytesPerItem()
+                        + " bytes per item, over its budget of " + m.budget());
+                within = false;
+            }
+        }
+        if (!within) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Loads budgets from a JSON object of population names to bytes per item.
+     * @param file The budgets file, or null for the packaged defaults.
+     * @return The budgets.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Map<String, Long> loadBudgets(Path file) throws IOException {
+        try (Reader reader = file != null ? Files.newBufferedReader(file) : openResource()) {
+            Map<String, Long> budgets = new Gson().fromJson(reader, new TypeToken<LinkedHashMap<String, Long>>() { }.getType());
+            return budgets != null ? budgets : Map.of();
+        }
+    }
+
+    private static Reader openResource() throws IOException {
+        InputStream in = MemoryFootprint.class.getClassLoader().getResourceAsStream(BUDGETS_RESOURCE);
+        if (in == null) {
+            throw new IOException(BUDGETS_RESOURCE + " is not on the classpath");
+        }
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Measures every population at the configured sizes and prints one line per measurement.
+     * @return The measurements, in the order they ran.
+     */
+    public List<Measurement> run() {
+        List<Measurement> results = new ArrayList<>();
+        for (int players : sizes(PLAYERS_PROPERTY, "1000,100000")) {
+            AtomicReference<List<PlayerRecord>> records = new AtomicReference<>(players(players));
+            AtomicReference<Object> indexes = new AtomicReference<>(indexes(records.get()));
+            results.add(report(measure("player-indexes", players, () -> indexes.set(null))));
+            results.add(report(measure("player", players, () -> records.set(null))));
+        }
+        for (int levels : sizes(LEVELS_PROPERTY, "2000")) {
+            AtomicReference<List<Leader>> leaders = new AtomicReference<>(leaders(levels));
+            AtomicReference<ContentCatalog> catalog = new AtomicReference<>(new ContentCatalog(leaders.get()));
+            results.add(report(measure("catalog-level", levels, () -> catalog.set(null))));
+            results.add(report(measure("level", levels, () -> leaders.set(null))));
+        }
+        for (int rows : sizes(ARCHIVE_ROWS_PROPERTY, "1000000")) {
+            AtomicReference<ArchiveColumns> columns = new AtomicReference<>(archive(rows));
+            results.add(report(measure("archive-row", rows, () -> columns.set(null))));
+        }
+        for (int games : sizes(GAMES_PROPERTY, "1000")) {
+            results.add(report(measureGames(games)));
+        }
+        return results;
+    }
+
+    /**
+     * Starts games that each block at their first level, and measures them while they wait.
+     * The catalog, the players and the event pipeline outlive the measurement, so only per-session
+     * state is counted: the game, its level copies, its UI and its thread stack.
+     */
+    private Measurement measureGames(int games) {
+        List<Leader> leaders = leaders(LEVELS_PER_LEADER * 2);
+        List<PlayerRecord> players = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            players.add(new PlayerRecord("game-player-" + i));
+        }
+        CountDownLatch waiting = new CountDownLatch(games);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(games);
+        try (EventPipeline events = new EventPipeline(1024, EventPipeline.Backpressure.BLOCK,
+                List.of(new EventPipeline.Named("discard", batch -> { })))) {
+            for (int i = 0; i < games; i++) {
+                PlayerRecord player = players.get(i);
+                GameUI ui = new ScriptedUI(new int[0]) {
+                    @Override
+                    public int getPlayerChoice() {
+                        waiting.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return super.getPlayerChoice();
+                    }
+                };
+                threads.add(Thread.ofVirtual().name("footprint-game-" + i)
+                        .start(() -> new Game(leaders, ui, player, events, true, true, new Random(player.hashCode())).start()));
+            }
+            waiting.await();
+            // Every game plays out its skipped levels and ends before the pipeline closes under it.
+            Measurement measurement = measure("game", games, () -> {
+                release.countDown();
+                try {
+                    for (Thread thread : threads) {
+                        thread.join();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                threads.clear();
+            });
+            Reference.reachabilityFence(players);
+            return measurement;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while measuring games", e);
+        }
+    }
+
+    /**
+     * Measures a population that is currently reachable, by how much used heap drops once it is released.
+     * Measuring the drop rather than the growth while building keeps garbage from earlier steps, which may
+     * only be collected later, out of the result.
+     */
+    private Measurement measure(String name, long items, Runnable release) {
+        long with = settledHeap();
+        release.run();
+        long without = settledHeap();
+        return new Measurement(name, items, Math.max(0, with - without), budgets.getOrDefault(name, -1L));
+    }
+
+    private static Object indexes(List<PlayerRecord> records) {
+        UsernameIndex usernames = new UsernameIndex();
+        usernames.addAll(records.stream().map(PlayerRecord::getUsername).toList());
+        return List.of(usernames, rankings(records));
+    }
+
+    private ArchiveColumns archive(int rows) {
+        ArchiveColumns columns = new ArchiveColumns();
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < rows; i++) {
+            columns.append(random.nextInt(LEADERS.length), 1 + random.nextInt(LEVELS_PER_LEADER),
+                    (byte) random.nextInt(2), (byte) random.nextInt(3), timestamp + i);
+        }
+        return columns;
+    }
+
+    /**
+     * Collects until used heap stops shrinking, so that garbage from earlier steps is not counted.
+     * Reads what each heap pool held right after the collection, since current usage also counts
+     * allocation buffers handed out since then.
+     */
+    private long settledHeap() {
+        long used = Long.MAX_VALUE;
+        for (int round = 0; round < MAX_SETTLE_ROUNDS; round++) {
+            System.gc();
+            long now = 0;
+            for (MemoryPoolMXBean pool : heapPools) {
+                MemoryUsage usage = pool.getCollectionUsage();
+                now += usage != null ? usage.getUsed() : pool.getUsage().getUsed();
+            }
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+
+    private static Measurement report(Measurement m) {
+        System.out.printf("[Footprint: %s x%d: %d bytes retained, %d per item%s]%n", m.name(), m.items(),
+                m.retainedBytes(), m.bytesPerItem(), m.budget() < 0 ? "" : " (budget " + m.budget() + ")");
+        return m;
+    }
+
+    private List<PlayerRecord> players(int count) {
+        List<PlayerRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(player(i));
+        }
+        return records;
+    }
+
+    /**
+     * Builds a player who has logged in a few times and played sessions against several leaders.
+     */
+    private PlayerRecord player(int i) {
+        PlayerRecord player = new PlayerRecord("player" + i);
+        long now = System.currentTimeMillis();
+        for (int login = 0; login < 5; login++) {
+            player.recordLogin(now - login * 86_400_000L);
+        }
+        for (int session = 0; session < 3; session++) {
+            String leader = LEADERS[random.nextInt(LEADERS.length)];
+            int score = random.nextInt(LEVELS_PER_LEADER + 1);
+            long timeMillis = 60_000 + random.nextInt(600_000);
+            player.recordSession(score, timeMillis, false);
+            player.recordLeaderSession(leader, score, timeMillis);
+            player.updateStatistics(LEVELS_PER_LEADER, score, timeMillis);
+            String[] leaders = new String[LEVELS_PER_LEADER];
+            int[] levelNumbers = new int[LEVELS_PER_LEADER];
+            int[] thinkMillis = new int[LEVELS_PER_LEADER];
+            byte[] outcomes = new byte[LEVELS_PER_LEADER];
+            Arrays.fill(leaders, leader);
+            for (int level = 0; level < LEVELS_PER_LEADER; level++) {
+                levelNumbers[level] = level + 1;
+                thinkMillis[level] = random.nextInt(30_000);
+                outcomes[level] = (byte) random.nextInt(3);
+            }
+            player.recordHistory(new SessionHistory.Session(now - session * 3_600_000L, score, timeMillis,
+                    SessionHistory.MODE_SINGLE, leaders, levelNumbers, thinkMillis, outcomes));
+        }
+        return player;
+    }
+
+    /**
+     * Builds the per-leader and all-time rankings with the same depth as {@link PlayerManager}.
+     */
+    private static List<LeaderRankings> rankings(List<PlayerRecord> records) {
+        LeaderRankings leaderRankings = new LeaderRankings(PlayerManager.RANKING_DEPTH);
+        LeaderRankings allTime = new LeaderRankings(PlayerManager.RANKING_DEPTH);
+        for (PlayerRecord record : records) {
+            for (String leader : record.getPlayedLeaders()) {
+                leaderRankings.update(leader, record.getUsername(),
+                        record.getBestLeaderScore(leader), record.getBestLeaderTimeMillis(leader));
+            }
+            allTime.update("all-time", record.getUsername(), record.getBestScore(), record.getBestTimeMillis());
+        }
+        return List.of(leaderRankings, allTime);
+    }
+
+    /**
+     * Builds leaders with distinct text of typical length, {@value #LEVELS_PER_LEADER} levels each.
+     */
+    private List<Leader> leaders(int levels) {
+        List<Leader> leaders = new ArrayList<>();
+        for (int l = 0; l * LEVELS_PER_LEADER < levels; l++) {
+            String name = "Leader " + l;
+            List<Level> leaderLevels = new ArrayList<>();
+            for (int n = 1; n <= LEVELS_PER_LEADER && l * LEVELS_PER_LEADER + n <= levels; n++) {
+                List<Choice> choices = List.of(new Choice(text(80), true), new Choice(text(80), false));
+                leaderLevels.add(new Level(n, text(300), new ArrayList<>(choices), text(200), name));
+            }
+            leaders.add(new Leader(name, text(500), leaderLevels));
+        }
+        return leaders;
+    }
+
+    /**
+     * Generates prose-like text of about the given length.
+     */
+    private String text(int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString().trim();
+    }
+
+    private static int[] sizes(String property, String defaults) {
+        return Arrays.stream(System.getProperty(property, defaults).split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,442 @@
+package com.echoesofcommand;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Struct-of-arrays storage for archive entries: one primitive array per field, indexed by row.
+ * <p>
+ * Aggregates scan only the columns they need as contiguous primitive arrays instead of chasing one
+ * object per entry. Rows are append-only and a row is never changed once written, so a
+ * {@link Snapshot} is just the current arrays and row count: it costs nothing to take and stays valid
+ * while new rows are appended, since growing copies into new arrays and leaves the old ones untouched.
+ * Scans over large snapshots are split into chunks on the fork-join pool; each chunk fills its own
+ * counters with a tight loop, and the partial counters are added together. Row searches are split the
+ * same way, a bounded wave of chunks at a time, so a search that only needs its first page of matches
+ * stops soon after finding them.
+ * <p>
+ * Not thread-safe for writing; the owner serializes {@link #append} and {@link #snapshot}.
+ */
+public class ArchiveColumns {
+    /** Rows scanned by one fork-join leaf; smaller scans run on the calling thread. */
+    static final int CHUNK_ROWS = 1 << 16;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] leaderIds = new int[INITIAL_CAPACITY];
+    private short[] levelNumbers = new short[INITIAL_CAPACITY];
+    private byte[] choices = new byte[INITIAL_CAPACITY];
+    private byte[] outcomes = new byte[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Answer counts, grouped by leader id or by time bucket.
+     * Each array is indexed by group; a skipped level counts as played but not answered.
+     * @param played The number of levels played in each group.
+     * @param correct The number answered with the historical choice.
+     * @param skipped The number skipped.
+     */
+    public record Counts(long[] played, long[] correct, long[] skipped) {
+        /**
+         * Gets the fraction of answered levels in a group that were correct.
+         * @param group The group index.
+         * @return The accuracy between 0 and 1, or 0 if nothing was answered.
+         */
+        public double accuracy(int group) {
+            long answered = played[group] - skipped[group];
+            return answered == 0 ? 0.0 : (double) correct[group] / answered;
+        }
+
+        /**
+         * Gets the fraction of played levels in a group that were skipped.
+         * @param group The group index.
+         * @return The skip rate between 0 and 1, or 0 if nothing was played.
+         */
+        public double skipRate(int group) {
+            return played[group] == 0 ? 0.0 : (double) skipped[group] / played[group];
+        }
+    }
+
+    /**
+     * Tests one row by its leader, level and outcome.
+     */
+    @FunctionalInterface
+    public interface RowFilter {
+        /**
+         * Tests a row.
+         * @param leaderId The row's leader id.
+         * @param levelNumber The row's level number.
+         * @param outcome The row's outcome, one of the {@link SessionHistory} outcome constants.
+         * @return True if the row matches.
+         */
+        boolean test(int leaderId, int levelNumber, byte outcome);
+    }
+
+    /**
+     * Matching rows found by {@link Snapshot#find}.
+     * @param rows The matching row indexes in ascending order.
+     * @param next The row to resume the search from; the snapshot size once every row has been searched.
+     */
+    public record Matches(int[] rows, int next) {
+    }
+
+    /**
+     * Appends one row.
+     * @param leaderId The leader's id in the owner's leader table.
+     * @param levelNumber The level number.
+     * @param choice The chosen option's index in content order, or a negative marker.
+     * @param outcome One of {@link SessionHistory#CORRECT}, {@link SessionHistory#INCORRECT}, {@link SessionHistory#SKIPPED}.
+     * @param timestamp The answer time in milliseconds since epoch.
+     * @throws IllegalArgumentException If the level number is not a {@linkplain Level#isValidNumber valid} one.
+     */
+    public void append(int leaderId, int levelNumber, byte choice, byte outcome, long timestamp) {
+        if (!Level.isValidNumber(levelNumber)) {
+            throw new IllegalArgumentException("Level number out of range: " + levelNumber);
+        }
+        if (size == leaderIds.length) {
+            int capacity = size + (size >> 1);
+            leaderIds = Arrays.copyOf(leaderIds, capacity);
+            levelNumbers = Arrays.copyOf(levelNumbers, capacity);
+            choices = Arrays.copyOf(choices, capacity);
+            outcomes = Arrays.copyOf(outcomes, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+        leaderIds[size] = leaderId;
+        levelNumbers[size] = (short) levelNumber;
+        choices[size] = choice;
+        outcomes[size] = outcome;
+        timestamps[size] = timestamp;
+        size++;
+    }
+
+    /**
+     * Gets the number of rows.
+     * @return The row count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every row. The columns are replaced rather than reused, since snapshots may still be reading them.
+     */
+    public void clear() {
+        leaderIds = new int[INITIAL_CAPACITY];
+        levelNumbers = new short[INITIAL_CAPACITY];
+        choices = new byte[INITIAL_CAPACITY];
+        outcomes = new byte[INITIAL_CAPACITY];
+        timestamps = new long[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Gets a read-only view of the rows appended so far.
+     * @return The snapshot, safe to scan from any thread once handed over under the owner's lock.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(leaderIds, levelNumbers, choices, outcomes, timestamps, size);
+    }
+
+    /**
+     * Read-only view of a prefix of the columns.
+     */
+    public static final class Snapshot {
+        private final int[] leaderIds;
+        private final short[] levelNumbers;
+        private final byte[] choices;
+        private final byte[] outcomes;
+        private final long[] timestamps;
+        private final int size;
+
+        private Snapshot(int[] leaderIds, short[] levelNumbers, byte[] choices, byte[] outcomes, long[] timestamps, int size) {
+            this.leaderIds = leaderIds;
+            this.levelNumbers = levelNumbers;
+            this.choices = choices;
+            this.outcomes = outcomes;
+            this.timestamps = timestamps;
+            this.size = size;
+        }
+
+        /**
+         * Gets the number of rows.
+         * @return The row count.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gets a row's leader id.
+         * @param row The row index.
+         * @return The leader id.
+         */
+        public int leaderId(int row) {
+            return leaderIds[checkRow(row)];
+        }
+
+        /**
+         * Gets a row's level number.
+         * @param row The row index.
+         * @return The level number.
+         */
+        public int levelNumber(int row) {
+            return levelNumbers[checkRow(row)];
+        }
+
+        /**
+         * Gets a row's choice index.
+         * @param row The row index.
+         * @return The chosen option's index in content order, or a negative marker.
+         */
+        public int choice(int row) {
+            return choices[checkRow(row)];
+        }
+
+        /**
+         * Gets a row's outcome.
+         * @param row The row index.
+         * @return One of the {@link SessionHistory} outcome constants.
+         */
+        public byte outcome(int row) {
+            return outcomes[checkRow(row)];
+        }
+
+        /**
+         * Gets a row's timestamp.
+         * @param row The row index.
+         * @return The answer time in milliseconds since epoch.
+         */
+        public long timestamp(int row) {
+            return timestamps[checkRow(row)];
+        }
+
+        /**
+         * Counts outcomes per leader for answers in a time range.
+         * @param leaders The number of leader ids; every row's id must be below it.
+         * @param from The inclusive start of the range in milliseconds since epoch.
+         * @param to The exclusive end of the range.
+         * @return The counts, indexed by leader id.
+         */
+        public Counts byLeader(int leaders, long from, long to) {
+            long[] counts = scan(leaders, (start, end, out) -> {
+                for (int i = start; i < end; i++) {
+                    long t = timestamps[i];
+                    if (t >= from && t < to) {
+                        out[leaderIds[i] * 3 + outcomes[i]]++;
+                    }
+                }
+            });
+            return split(counts, leaders);
+        }
+
+        /**
+         * Counts outcomes per fixed-width time bucket, optionally for one leader.
+         * Rows before the first bucket or after the last one are ignored.
+         * @param leaderId The leader id to count, or -1 for every leader.
+         * @param from The start of the first bucket in milliseconds since epoch.
+         * @param bucketMillis The bucket width.
+         * @param buckets The number of buckets.
+         * @return The counts, indexed by bucket.
+         * @throws IllegalArgumentException If the bucket width or count is not positive.
+         */
+        public Counts byTime(int leaderId, long from, long bucketMillis, int buckets) {
+            if (bucketMillis <= 0 || buckets <= 0) {
+                throw new IllegalArgumentException("Bucket width and count must be positive");
+            }
+            long to = from + bucketMillis * buckets;
+            long[] counts = scan(buckets, (start, end, out) -> {
+                for (int i = start; i < end; i++) {
+                    long t = timestamps[i];
+                    if (t >= from && t < to && (leaderId < 0 || leaderIds[i] == leaderId)) {
+                        out[(int) ((t - from) / bucketMillis) * 3 + outcomes[i]]++;
+                    }
+                }
+            });
+            return split(counts, buckets);
+        }
+
+        /**
+         * Counts rows with a given outcome in a time range, across every leader.
+         * @param outcome One of the {@link SessionHistory} outcome constants.
+         * @param from The inclusive start of the range in milliseconds since epoch.
+         * @param to The exclusive end of the range.
+         * @return The number of matching rows.
+         */
+        public long countOutcome(byte outcome, long from, long to) {
+            long[] counts = scan(1, (start, end, out) -> {
+                // Branch-free so the loop compiles to straight-line compares over two columns.
+                long n = 0;
+                for (int i = start; i < end; i++) {
+                    long t = timestamps[i];
+                    n += (t >= from & t < to & outcomes[i] == outcome) ? 1 : 0;
+                }
+                out[0] += n;
+            });
+            return counts[0];
+        }
+
+        /**
+         * Finds the first rows at or after a position that pass a filter. Rows are searched a wave of
+         * {@link #CHUNK_ROWS}-row partitions at a time, one per fork-join worker, until enough match.
+         * @param from The first row to search.
+         * @param limit The maximum number of rows to return.
+         * @param filter The filter; called concurrently from several threads.
+         * @return The matching rows and where to resume.
+         * @throws IndexOutOfBoundsException If the position is outside the snapshot.
+         */
+        public Matches find(int from, int limit, RowFilter filter) {
+            if (from < 0 || from > size) {
+                throw new IndexOutOfBoundsException("Row " + from + " out of " + size);
+            }
+            int wave = CHUNK_ROWS * Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+            int[] rows = new int[0];
+            int position = from;
+            while (position < size && rows.length < limit) {
+                int end = (int) Math.min(size, (long) position + wave);
+                int wanted = limit - rows.length;
+                int[] found = end - position <= CHUNK_ROWS
+                        ? findRange(position, end, wanted, filter)
+                        : ForkJoinPool.commonPool().invoke(new FindTask(this, filter, wanted, position, end));
+                if (found.length >= wanted) {
+                    // Resume right after the last row returned; later matches in this wave are found again.
+                    position = found[wanted - 1] + 1;
+                    found = found.length == wanted ? found : Arrays.copyOf(found, wanted);
+                } else {
+                    position = end;
+                }
+                rows = concat(rows, found, limit);
+            }
+            return new Matches(rows, position);
+        }
+
+        private int[] findRange(int start, int end, int limit, RowFilter filter) {
+            int[] found = new int[Math.min(limit, 16)];
+            int n = 0;
+            for (int i = start; i < end && n < limit; i++) {
+                if (filter.test(leaderIds[i], levelNumbers[i], outcomes[i])) {
+                    if (n == found.length) {
+                        found = Arrays.copyOf(found, Math.min(limit, n * 2));
+                    }
+                    found[n++] = i;
+                }
+            }
+            return n == found.length ? found : Arrays.copyOf(found, n);
+        }
+
+        private long[] scan(int groups, Kernel kernel) {
+            if (size <= CHUNK_ROWS) {
+                long[] out = new long[groups * 3];
+                kernel.run(0, size, out);
+                return out;
+            }
+            return ForkJoinPool.commonPool().invoke(new ScanTask(kernel, groups * 3, 0, size));
+        }
+
+        private int checkRow(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " out of " + size);
+            }
+            return row;
+        }
+
+        private static Counts split(long[] counts, int groups) {
+            long[] played = new long[groups];
+            long[] correct = new long[groups];
+            long[] skipped = new long[groups];
+            for (int g = 0; g < groups; g++) {
+                long c = counts[g * 3 + SessionHistory.CORRECT];
+                long s = counts[g * 3 + SessionHistory.SKIPPED];
+                played[g] = counts[g * 3 + SessionHistory.INCORRECT] + c + s;
+                correct[g] = c;
+                skipped[g] = s;
+            }
+            return new Counts(played, correct, skipped);
+        }
+    }
+
+    private static int[] concat(int[] first, int[] second, int limit) {
+        if (first.length == 0 && second.length <= limit) {
+            return second;
+        }
+        int length = Math.min(limit, first.length + second.length);
+        int[] joined = Arrays.copyOf(first, length);
+        System.arraycopy(second, 0, joined, first.length, length - first.length);
+        return joined;
+    }
+
+    /**
+     * Scans rows [start, end) and adds into per-group counters laid out as three outcomes per group.
+     */
+    private interface Kernel {
+        void run(int start, int end, long[] out);
+    }
+
+    /**
+     * Splits a row range in halves down to {@link #CHUNK_ROWS}, scanning leaves into private counters that are summed on join.
+     */
+    @SuppressWarnings("serial")
+    private static class ScanTask extends RecursiveTask<long[]> {
+        private final Kernel kernel;
+        private final int width;
+        private final int from;
+        private final int to;
+
+        ScanTask(Kernel kernel, int width, int from, int to) {
+            this.kernel = kernel;
+            this.width = width;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= CHUNK_ROWS) {
+                long[] out = new long[width];
+                kernel.run(from, to, out);
+                return out;
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(kernel, width, from, mid);
+            left.fork();
+            long[] result = new ScanTask(kernel, width, mid, to).compute();
+            long[] other = left.join();
+            for (int i = 0; i < width; i++) {
+                result[i] += other[i];
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Splits a row range in halves down to {@link #CHUNK_ROWS}, searching leaves independently and joining their matches in row order.
+     */
+    @SuppressWarnings("serial")
+    private static class FindTask extends RecursiveTask<int[]> {
+        private final Snapshot snapshot;
+        private final RowFilter filter;
+        private final int limit;
+        private final int from;
+        private final int to;
+
+        FindTask(Snapshot snapshot, RowFilter filter, int limit, int from, int to) {
+            this.snapshot = snapshot;
+            this.filter = filter;
+            this.limit = limit;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= CHUNK_ROWS) {
+                return snapshot.findRange(from, to, limit, filter);
+            }
+            int mid = (from + to) >>> 1;
+            FindTask left = new FindTask(snapshot, filter, limit, from, mid);
+            left.fork();
+            int[] right = new FindTask(snapshot, filter, limit, mid, to).compute();
+            return concat(left.join(), right, limit);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pages through the results of an {@link ArchiveQuery}, oldest entry first.
+ * <p>
+ * A cursor reads from the archive as it was when the cursor was opened, so pages neither skip nor
+ * repeat entries while new answers are archived. Each page searches only as far as it needs to: rows
+ * are tested in parallel partitions and the search stops once a page is full. Because rows are never
+ * changed once archived, {@link #position()} can also be handed to a later
+ * {@link ArchiveManager#query(ArchiveQuery, int, int)} to continue from a fresh view of the archive.
+ */
+public class ArchiveCursor {
+    private final ArchiveQuery query;
+    private final ArchiveColumns.Snapshot snapshot;
+    private final List<String> leaders;
+    private final Level[][] levels;
+    private final ArchiveColumns.RowFilter filter;
+    private final int pageSize;
+    private int position;
+
+    /**
+     * Creates a cursor.
+     * @param query The query.
+     * @param snapshot The archive rows to search.
+     * @param leaders The leader names by leader id.
+     * @param levels Each leader's catalog levels by level number, or null where the level is not in the catalog.
+     * @param filter The combined row filter for the query.
+     * @param from The first row to search.
+     * @param pageSize The number of entries per page.
+     */
+    ArchiveCursor(ArchiveQuery query, ArchiveColumns.Snapshot snapshot, List<String> leaders, Level[][] levels,
+                  ArchiveColumns.RowFilter filter, int from, int pageSize) {
+        this.query = query;
+        this.snapshot = snapshot;
+        this.leaders = leaders;
+        this.levels = levels;
+        this.filter = filter;
+        this.position = from;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Gets the next page of matching entries.
+     * @return Up to a page of entries with their text resolved from the catalog; empty once the results are exhausted.
+     */
+    public synchronized List<ArchiveManager.ResolvedEntry> next() {
+        if (!hasNext()) {
+            return List.of();
+        }
+        FlightEvents.ArchiveSearch event = new FlightEvents.ArchiveSearch();
+        event.begin();
+        int start = position;
+        ArchiveColumns.Matches matches = snapshot.find(position, pageSize, filter);
+        position = matches.next();
+        List<ArchiveManager.ResolvedEntry> page = new ArrayList<>(matches.rows().length);
+        for (int row : matches.rows()) {
+            int leaderId = snapshot.leaderId(row);
+            int levelNumber = snapshot.levelNumber(row);
+            page.add(ArchiveManager.resolve(leaders.get(leaderId), levelNumber, snapshot.choice(row),
+                    snapshot.outcome(row) == SessionHistory.CORRECT, snapshot.timestamp(row), level(leaderId, levelNumber)));
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.keyword = query.toString();
+            event.scanned = position - start;
+            event.hits = page.size();
+            event.commit();
+        }
+        return page;
+    }
+
+    /**
+     * Checks whether any rows are left to search. The next page may still turn out empty if none of them match.
+     * @return True if {@link #next()} may return more entries.
+     */
+    public synchronized boolean hasNext() {
+        return position < snapshot.size();
+    }
+
+    /**
+     * Gets the row the next page starts searching from.
+     * @return The position, usable as the start of a later query.
+     */
+    public synchronized int position() {
+        return position;
+    }
+
+    private Level level(int leaderId, int levelNumber) {
+        Level[] byNumber = levels[leaderId];
+        return byNumber != null && levelNumber >= 0 && levelNumber < byNumber.length ? byNumber[levelNumber] : null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.echoesofcommand;
+
+import java.util.List;
+
+/**
+ * Appends answered and skipped levels to the archive, writing the archive file once per batch
+ * unless persistence is left to the owner, as in bulk grading.
+ */
+public class ArchiveEventConsumer implements EventPipeline.Consumer {
+    private final ArchiveManager archive;
+    private final boolean saveEachBatch;
+
+    /**
+     * Creates a consumer that saves the archive after every batch.
+     * @param archive The archive manager to append to.
+     */
+    public ArchiveEventConsumer(ArchiveManager archive) {
+        this(archive, true);
+    }
+
+    /**
+     * Creates the consumer.
+     * @param archive The archive manager to append to.
+     * @param saveEachBatch Whether to save the archive after every batch.
+     */
+    public ArchiveEventConsumer(ArchiveManager archive, boolean saveEachBatch) {
+        this.archive = archive;
+        this.saveEachBatch = saveEachBatch;
+    }
+
+    @Override
+    public void onBatch(List<GameEvent> batch) {
+        boolean changed = false;
+        for (GameEvent event : batch) {
+            try {
+                if (event instanceof GameEvent.LevelAnswered answered) {
+                    Level level = answered.level();
+                    archive.addEntry(level.getLeaderName(), level.getNumber(), answered.choiceIndex(), answered.correct(), answered.timestamp());
+                    changed = true;
+                } else if (event instanceof GameEvent.LevelSkipped skipped) {
+                    Level level = skipped.level();
+                    archive.addEntry(level.getLeaderName(), level.getNumber(), ArchiveManager.SKIPPED, false, skipped.timestamp());
+                    changed = true;
+                }
+            } catch (IllegalArgumentException e) {
+                // One unstorable entry must not cost the rest of the batch.
+                System.err.println("Warning: Not archived: " + e.getMessage());
+            }
+        }
+        if (changed && saveEachBatch) {
+            archive.saveToJson();
+        }
+    }
+}
@@ -1,84 +1,515 @@
 package com.echoesofcommand;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 /**
  * Manages the game archive, storing and searching level entries.
+ * <p>
+ * Entries are stored normalized: a leader id, the level number, the index of the chosen option in
+ * content order, correctness and a timestamp. Descriptions, choices and summaries are never copied;
+ * they are resolved from the content catalog when entries are displayed or searched. Entries are held
+ * in {@link ArchiveColumns}, so aggregate queries scan primitive columns instead of entry objects.
  */
 public class ArchiveManager {
-    private List<ArchiveEntry> archive = new ArrayList<>();
-    private static final String ARCHIVE_FILE = "archive.json";
+    /** Choice index recorded for a level the player skipped. */
+    public static final int SKIPPED = -1;
+    /** Choice index of an answer converted from the old archive format, resolved by its correctness. */
+    static final int LEGACY_ANSWER = -2;
+    static final int FORMAT_VERSION = 2;
+    static final String ARCHIVE_FILE = "archive.json";
+    static final String UNREADABLE_ARCHIVE_FILE = ARCHIVE_FILE + ".bad";
+    private static final String UNAVAILABLE = "[content unavailable]";
+    private static final int SEARCH_PAGE_SIZE = 10;
+
+    private final ArchiveColumns archive = new ArchiveColumns();
+    private final List<String> leaderNames = new ArrayList<>();
+    private final Map<String, Integer> leaderIds = new HashMap<>();
+    private final CatalogHolder catalog;
+    private final Object saveLock = new Object();
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean saveBlocked;
 
     /**
-     * Adds a new entry to the archive with the player's choice and correctness.
+     * Creates the archive manager and loads any saved archive, converting the old format if needed.
+     * @param catalog The catalog used to resolve entry text.
+     */
+    public ArchiveManager(CatalogHolder catalog) {
+        this.catalog = catalog;
+        loadFromJson();
+    }
+
+    /**
+     * Adds a new entry to the archive.
      * @param leader The leader's name.
-     * @param level The level to archive.
-     * @param playerChoice The player's chosen option (text of the choice).
+     * @param levelNumber The level number.
+     * @param choiceIndex The chosen option's index in content order, or {@link #SKIPPED}.
      * @param isCorrect Whether the player's choice was correct.
+     * @param timestamp The answer time in milliseconds since epoch.
+     * @throws IllegalArgumentException If the level number is not a {@linkplain Level#isValidNumber valid} one.
+     */
+    public synchronized void addEntry(String leader, int levelNumber, int choiceIndex, boolean isCorrect, long timestamp) {
+        archive.append(leaderId(leader), levelNumber, (byte) choiceIndex, outcome(choiceIndex, isCorrect), timestamp);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Gets the data version, which changes whenever an entry is added.
+     * @return The current version.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Gets the number of archived entries.
+     * @return The entry count.
      */
-    public void addEntry(String leader, Level level, String playerChoice, boolean isCorrect) {
-        String histChoice = level.getChoices().stream()
-                .filter(Choice::isHistorical)
-                .findFirst()
-                .map(Choice::getText)
-                .orElse("");
-        archive.add(new ArchiveEntry(leader, level.getNumber(), level.getDescription(), histChoice, level.getSummary(), playerChoice, isCorrect));
+    public synchronized int size() {
+        return archive.size();
     }
 
     /**
-     * Saves the archive to a JSON file.
+     * Opens a cursor over the entries matching a query, starting from the oldest.
+     * @param query The query.
+     * @param pageSize The number of entries per page.
+     * @return The cursor.
+     */
+    public ArchiveCursor query(ArchiveQuery query, int pageSize) {
+        return query(query, 0, pageSize);
+    }
+
+    /**
+     * Opens a cursor over the entries matching a query, starting from a position returned by an earlier cursor.
+     * <p>
+     * Text predicates depend only on the level, so they are evaluated once per catalog level, leaders in
+     * parallel, into a lookup table; the row search then tests only primitive columns against the table.
+     * @param query The query.
+     * @param from The row to start from, such as {@link ArchiveCursor#position()}; 0 for the oldest entry.
+     * @param pageSize The number of entries per page.
+     * @return The cursor.
+     * @throws IllegalArgumentException If the page size is not positive or the position is negative, or the
+     *         query's regular expressions run past its time limit.
+     */
+    public ArchiveCursor query(ArchiveQuery query, int from, int pageSize) {
+        if (pageSize <= 0 || from < 0) {
+            throw new IllegalArgumentException("Page size must be positive and position not negative");
+        }
+        ArchiveColumns.Snapshot snapshot;
+        List<String> names;
+        synchronized (this) {
+            snapshot = archive.snapshot();
+            names = new ArrayList<>(leaderNames);
+        }
+        ContentCatalog content = currentCatalog();
+        int leaders = names.size();
+        boolean[] leaderMatches = new boolean[leaders];
+        boolean[] nameMatches = new boolean[leaders];
+        Level[][] levels = new Level[leaders][];
+        boolean[][] levelMatches = new boolean[leaders][];
+        long deadlineNanos = query.matchDeadline();
+        IntStream.range(0, leaders).parallel().forEach(id -> {
+            String name = names.get(id);
+            Leader leader = content != null ? content.findLeader(name) : null;
+            if (leader != null && leader.getLevels() != null) {
+                int max = leader.getLevels().stream().mapToInt(Level::getNumber)
+                        .filter(Level::isValidNumber).max().orElse(-1);
+                levels[id] = new Level[max + 1];
+                levelMatches[id] = new boolean[max + 1];
+                for (Level level : leader.getLevels()) {
+                    if (Level.isValidNumber(level.getNumber())) {
+                        levels[id][level.getNumber()] = level;
+                        levelMatches[id][level.getNumber()] = query.matchesText(name, level, deadlineNanos);
+                    }
+                }
+            }
+            leaderMatches[id] = query.matchesLeader(name);
+            nameMatches[id] = query.matchesText(name, null, deadlineNanos);
+        });
+        ArchiveColumns.RowFilter filter = (leaderId, levelNumber, outcome) -> {
+            if (!leaderMatches[leaderId] || !query.matchesOutcome(outcome)) {
+                return false;
+            }
+            Level[] byNumber = levels[leaderId];
+            if (byNumber != null && levelNumber >= 0 && levelNumber < byNumber.length && byNumber[levelNumber] != null) {
+                return levelMatches[leaderId][levelNumber];
+            }
+            return nameMatches[leaderId];
+        };
+        return new ArchiveCursor(query, snapshot, names, levels, filter, Math.min(from, snapshot.size()), pageSize);
+    }
+
+    /**
+     * Gets answer counts for every leader over a time range.
+     * @param from The inclusive start of the range in milliseconds since epoch.
+     * @param to The exclusive end of the range.
+     * @return One row per leader with at least one level played in the range, in the order leaders were first archived.
+     */
+    public List<LeaderActivity> leaderActivity(long from, long to) {
+        ArchiveColumns.Snapshot snapshot;
+        List<String> names;
+        synchronized (this) {
+            snapshot = archive.snapshot();
+            names = new ArrayList<>(leaderNames);
+        }
+        ArchiveColumns.Counts counts = snapshot.byLeader(names.size(), from, to);
+        List<LeaderActivity> rows = new ArrayList<>();
+        for (int id = 0; id < names.size(); id++) {
+            if (counts.played()[id] > 0) {
+                rows.add(new LeaderActivity(names.get(id), counts.played()[id], counts.correct()[id],
+                        counts.skipped()[id], counts.accuracy(id), counts.skipRate(id)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Gets answer counts per fixed-width time bucket, for trends such as skip rate over time.
+     * @param leader The leader to count, or null for every leader.
+     * @param from The start of the first bucket in milliseconds since epoch.
+     * @param bucketMillis The bucket width.
+     * @param buckets The number of buckets.
+     * @return One row per bucket, oldest first.
+     * @throws IllegalArgumentException If the bucket width or count is not positive.
+     */
+    public List<TimeBucketActivity> activityOverTime(String leader, long from, long bucketMillis, int buckets) {
+        ArchiveColumns.Snapshot snapshot;
+        int leaderId;
+        synchronized (this) {
+            snapshot = archive.snapshot();
+            // An unknown leader gets an id no row carries, so every bucket comes back empty.
+            leaderId = leader == null ? -1 : leaderIds.getOrDefault(leader, Integer.MAX_VALUE);
+        }
+        ArchiveColumns.Counts counts = snapshot.byTime(leaderId, from, bucketMillis, buckets);
+        List<TimeBucketActivity> rows = new ArrayList<>(buckets);
+        for (int b = 0; b < buckets; b++) {
+            rows.add(new TimeBucketActivity(from + b * bucketMillis, counts.played()[b], counts.correct()[b],
+                    counts.skipped()[b], counts.accuracy(b), counts.skipRate(b)));
+        }
+        return rows;
+    }
+
+    /**
+     * Saves the archive to a JSON file. Entries are streamed from a snapshot, so play is not blocked while writing.
+     * Nothing is saved if the file could not be loaded and could not be moved aside, so it is never overwritten.
      */
     public void saveToJson() {
-        try (Writer writer = new FileWriter(ARCHIVE_FILE)) {
-            new Gson().toJson(archive, writer);
-        } catch (IOException e) {
-            System.err.println("Warning: Failed to save archive: " + e.getMessage());
+        if (saveBlocked) {
+            System.err.println("Warning: Archive not saved; " + ARCHIVE_FILE + " could not be loaded and is kept as it is");
+            return;
+        }
+        synchronized (saveLock) {
+            FlightEvents.ArchiveSave event = new FlightEvents.ArchiveSave();
+            event.begin();
+            ArchiveColumns.Snapshot snapshot;
+            List<String> names;
+            synchronized (this) {
+                snapshot = archive.snapshot();
+                names = new ArrayList<>(leaderNames);
+            }
+            try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(Path.of(ARCHIVE_FILE), StandardCharsets.UTF_8))) {
+                writer.beginObject();
+                writer.name("version").value(FORMAT_VERSION);
+                writer.name("leaders").beginArray();
+                for (String name : names) {
+                    writer.value(name);
+                }
+                writer.endArray();
+                writer.name("entries").beginArray();
+                for (int row = 0; row < snapshot.size(); row++) {
+                    writer.beginArray()
+                            .value(snapshot.leaderId(row))
+                            .value(snapshot.levelNumber(row))
+                            .value(snapshot.choice(row))
+                            .value(snapshot.outcome(row) == SessionHistory.CORRECT ? 1 : 0)
+                            .value(snapshot.timestamp(row))
+                            .endArray();
+                }
+                writer.endArray();
+                writer.endObject();
+            } catch (IOException e) {
+                System.err.println("Warning: Failed to save archive: " + e.getMessage());
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.entries = snapshot.size();
+                event.bytesWritten = new File(ARCHIVE_FILE).length();
+                event.commit();
+            }
         }
     }
 
     /**
-     * Prompts the user to search the archive using the provided UI.
+     * Prompts the user to search the archive using the provided UI, showing results a page at a time.
+     * See {@link ArchiveQuery} for the search syntax.
      * @param ui The GameUI instance for user interaction.
      */
     public void promptSearch(GameUI ui) {
-        if (archive.isEmpty()) {
+        boolean empty;
+        synchronized (this) {
+            empty = archive.size() == 0;
+        }
+        if (empty) {
             System.out.println("[Your archive is empty. Complete levels to build your archive!]");
             return;
         }
         if (!ui.promptArchiveSearch()) {
             return;
         }
-        String keyword = ui.promptSearchKeyword().toLowerCase();
-        List<ArchiveEntry> results = archive.stream()
-                .filter(e -> e.description.toLowerCase().contains(keyword)
-                        || e.leader.toLowerCase().contains(keyword)
-                        || e.summary.toLowerCase().contains(keyword))
-                .collect(Collectors.toList());
-        if (results.isEmpty()) {
-            System.out.println("[No results found. Try a different keyword or play more levels.]");
+        ArchiveCursor cursor;
+        try {
+            cursor = query(ArchiveQuery.parse(ui.promptSearchKeyword()), SEARCH_PAGE_SIZE);
+        } catch (IllegalArgumentException e) {
+            System.out.println("[" + e.getMessage() + "]");
+            return;
+        }
+        List<ResolvedEntry> page = cursor.next();
+        if (page.isEmpty()) {
+            System.out.println("[No results found. Try a different search or play more levels.]");
             return;
         }
         System.out.println("\n=== Archive Search Results ===");
-        for (ArchiveEntry entry : results) {
-            System.out.println("Leader: " + entry.leader);
-            System.out.println("Level " + entry.levelNumber + ": " + entry.description);
-            System.out.println("Your Choice: " + (entry.playerChoice.isEmpty() ? "Skipped" : entry.playerChoice));
-            System.out.println("Result: " + (entry.playerChoice.isEmpty() ? "Skipped" : (entry.isCorrect ? "Correct ✔️" : "Incorrect ❌")));
-            System.out.println("Historical Decision: " + entry.historicalChoice);
-            System.out.println("Summary: " + entry.summary + "\n");
+        while (true) {
+            for (ResolvedEntry entry : page) {
+                System.out.println("Leader: " + entry.leader());
+                System.out.println("Level " + entry.levelNumber() + ": " + entry.description());
+                System.out.println("Your Choice: " + (entry.skipped() ? "Skipped" : entry.playerChoice()));
+                System.out.println("Result: " + (entry.skipped() ? "Skipped" : (entry.correct() ? "Correct ✔️" : "Incorrect ❌")));
+                System.out.println("Historical Decision: " + entry.historicalChoice());
+                System.out.println("Summary: " + entry.summary() + "\n");
+            }
+            if (!cursor.hasNext() || !ui.promptMoreResults()) {
+                return;
+            }
+            page = cursor.next();
+            if (page.isEmpty()) {
+                System.out.println("[No more results.]");
+                return;
+            }
+        }
+    }
+
+    private int leaderId(String leader) {
+        Integer id = leaderIds.get(leader);
+        if (id == null) {
+            id = leaderNames.size();
+            leaderNames.add(leader);
+            leaderIds.put(leader, id);
+        }
+        return id;
+    }
+
+    static byte outcome(int choiceIndex, boolean isCorrect) {
+        if (choiceIndex == SKIPPED) {
+            return SessionHistory.SKIPPED;
         }
+        return isCorrect ? SessionHistory.CORRECT : SessionHistory.INCORRECT;
+    }
+
+    private ContentCatalog currentCatalog() {
+        try {
+            return catalog.get();
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Archive text unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Resolves a stored entry's text from its level.
+     * @param level The entry's level in the current catalog, or null if it is no longer available.
+     */
+    static ResolvedEntry resolve(String leader, int levelNumber, int choiceIndex, boolean correct, long timestamp, Level level) {
+        boolean skipped = choiceIndex == SKIPPED;
+        if (level == null) {
+            return new ResolvedEntry(leader, levelNumber, UNAVAILABLE, UNAVAILABLE, UNAVAILABLE,
+                    skipped ? "" : UNAVAILABLE, correct, skipped, timestamp);
+        }
+        List<Choice> choices = level.getChoices();
+        String historical = choices.stream().filter(Choice::isHistorical).findFirst().map(Choice::getText).orElse("");
+        String chosen = "";
+        if (choiceIndex == LEGACY_ANSWER) {
+            chosen = choices.stream().filter(c -> c.isHistorical() == correct).findFirst().map(Choice::getText).orElse(UNAVAILABLE);
+        } else if (choiceIndex >= 0) {
+            chosen = choiceIndex < choices.size() ? choices.get(choiceIndex).getText() : UNAVAILABLE;
+        }
+        return new ResolvedEntry(leader, levelNumber, level.getDescription(), historical, level.getSummary(),
+                chosen, correct, skipped, timestamp);
+    }
+
+    private synchronized void loadFromJson() {
+        Path file = Path.of(ARCHIVE_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                loadLegacy(reader);
+            } else {
+                loadCompact(reader);
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to load archive: " + e.getMessage());
+            archive.clear();
+            leaderNames.clear();
+            leaderIds.clear();
+            moveAside(file);
+        }
+    }
+
+    /**
+     * Keeps an unreadable archive for inspection instead of letting the next save replace it with an
+     * empty one; if it cannot be moved, saving is blocked for this run.
+     */
+    private void moveAside(Path file) {
+        try {
+            Files.move(file, Path.of(UNREADABLE_ARCHIVE_FILE), StandardCopyOption.REPLACE_EXISTING);
+            System.err.println("Warning: Moved unreadable archive to " + UNREADABLE_ARCHIVE_FILE + "; starting with an empty archive");
+        } catch (IOException e) {
+            saveBlocked = true;
+            System.err.println("Warning: Could not move unreadable archive aside (" + e.getMessage()
+                    + "); the archive will not be saved this run");
+        }
+    }
+
+    private void loadCompact(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "version" -> {
+                    int fileVersion = reader.nextInt();
+                    if (fileVersion != FORMAT_VERSION) {
+                        throw new IOException("Unsupported archive version " + fileVersion);
+                    }
+                }
+                case "leaders" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        leaderId(reader.nextString());
+                    }
+                    reader.endArray();
+                }
+                case "entries" -> {
+                    int outOfRange = 0;
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        reader.beginArray();
+                        int leader = reader.nextInt();
+                        int level = reader.nextInt();
+                        int choice = reader.nextInt();
+                        boolean correct = reader.nextInt() != 0;
+                        long timestamp = reader.nextLong();
+                        reader.endArray();
+                        if (Level.isValidNumber(level)) {
+                            archive.append(leader, level, (byte) choice, outcome(choice, correct), timestamp);
+                        } else {
+                            outOfRange++;
+                        }
+                    }
+                    reader.endArray();
+                    reportOutOfRange(outOfRange);
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        ArchiveColumns.Snapshot snapshot = archive.snapshot();
+        for (int row = 0; row < snapshot.size(); row++) {
+            if (snapshot.leaderId(row) < 0 || snapshot.leaderId(row) >= leaderNames.size()) {
+                throw new IOException("Archive entry refers to unknown leader id " + snapshot.leaderId(row));
+            }
+        }
+    }
+
+    /**
+     * Converts the old format, a JSON array of entries carrying copies of every text field.
+     */
+    private void loadLegacy(JsonReader reader) throws IOException {
+        Gson gson = new Gson();
+        int outOfRange = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            LegacyEntry legacy = gson.fromJson(reader, LegacyEntry.class);
+            if (legacy == null || legacy.leader == null) {
+                continue;
+            }
+            if (!Level.isValidNumber(legacy.levelNumber)) {
+                outOfRange++;
+                continue;
+            }
+            boolean skipped = legacy.playerChoice == null || legacy.playerChoice.isEmpty();
+            int choice = skipped ? SKIPPED : LEGACY_ANSWER;
+            archive.append(leaderId(legacy.leader), legacy.levelNumber, (byte) choice, outcome(choice, legacy.isCorrect), 0L);
+        }
+        reader.endArray();
+        reportOutOfRange(outOfRange);
+    }
+
+    /**
+     * Warns about entries left out of a load because their level number cannot be stored.
+     */
+    private static void reportOutOfRange(int count) {
+        if (count > 0) {
+            System.err.println("Warning: Skipped " + count + " archive entries numbered outside 0.." + Level.MAX_NUMBER
+                    + "; they will be dropped when the archive is next saved");
+        }
+    }
+
+    /**
+     * An archive entry with its text resolved from the catalog, as shown to players and served by the read API.
+     * @param leader The leader's name.
+     * @param levelNumber The level number.
+     * @param description The level description.
+     * @param historicalChoice The historical choice made.
+     * @param summary The level summary.
+     * @param playerChoice The player's chosen option, or empty if skipped.
+     * @param correct Whether the player's choice was correct.
+     * @param skipped Whether the player skipped the level.
+     * @param timestamp The answer time in milliseconds since epoch, or 0 for entries converted from the old format.
+     */
+    public record ResolvedEntry(String leader, int levelNumber, String description, String historicalChoice,
+                                String summary, String playerChoice, boolean correct, boolean skipped, long timestamp) {
+    }
+
+    /**
+     * Answer counts for one leader.
+     * @param leader The leader's name.
+     * @param played The number of levels played.
+     * @param correct The number answered with the historical choice.
+     * @param skipped The number skipped.
+     * @param accuracy The fraction of answered levels that were correct.
+     * @param skipRate The fraction of played levels that were skipped.
+     */
+    public record LeaderActivity(String leader, long played, long correct, long skipped, double accuracy, double skipRate) {
     }
 
     /**
-     * Represents a single entry in the archive.
+     * Answer counts for one time bucket.
+     * @param start The bucket start in milliseconds since epoch.
+     * @param played The number of levels played.
+     * @param correct The number answered with the historical choice.
+     * @param skipped The number skipped.
+     * @param accuracy The fraction of answered levels that were correct.
+     * @param skipRate The fraction of played levels that were skipped.
      */
-    static class ArchiveEntry {
+    public record TimeBucketActivity(long start, long played, long correct, long skipped, double accuracy, double skipRate) {
+    }
+
+    /**
+     * The old on-disk entry format, which carries a copy of every text field.
+     */
+    static class LegacyEntry {
         String leader;
         int levelNumber;
         String description;
@@ -86,25 +517,5 @@ public class ArchiveManager {
         String summary;
         String playerChoice;
         boolean isCorrect;
-
-        /**
-         * Creates a new archive entry.
-         * @param leader The leader's name.
-         * @param levelNumber The level number.
-         * @param description The level description.
-         * @param historicalChoice The historical choice made.
-         * @param summary The level summary.
-         * @param playerChoice The player's chosen option.
-         * @param isCorrect Whether the player's choice was correct.
-         */
-        public ArchiveEntry(String leader, int levelNumber, String description, String historicalChoice, String summary, String playerChoice, boolean isCorrect) {
-            this.leader = leader;
-            this.levelNumber = levelNumber;
-            this.description = description;
-            this.historicalChoice = historicalChoice;
-            this.summary = summary;
-            this.playerChoice = playerChoice != null ? playerChoice : "";
-            this.isCorrect = isCorrect;
-        }
-    }
-}
\ No newline at end of file
+    }
+}
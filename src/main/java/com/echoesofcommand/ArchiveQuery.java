@@ -0,0 +1,302 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A parsed archive search: text predicates over a level's leader, description and summary, and
+ * structured predicates over the leader and the outcome of each answer. Every term must match.
+ * <p>
+ * Syntax, with terms separated by spaces:
+ * <ul>
+ *     <li>{@code word} — the text contains the word, ignoring case</li>
+ *     <li>{@code "exact phrase"} — the text contains the words in order as whole words, ignoring case and spacing</li>
+ *     <li>{@code /regex/} — the text contains a match of the regular expression, ignoring case; at most
+ *     {@value #MAX_REGEX_LENGTH} characters</li>
+ *     <li>{@code leader:name} or {@code leader:"de Gaulle"} — the leader's name contains the value, ignoring
+ *     case; at most one per query</li>
+ *     <li>{@code is:correct}, {@code is:incorrect}, {@code is:skipped}, {@code is:answered} — the answer's
+ *     outcome; several {@code is:} terms match any of them</li>
+ * </ul>
+ * For example, incorrect answers for de Gaulle are {@code leader:"de gaulle" is:incorrect}. Text
+ * predicates depend only on the level, so they are evaluated once per level rather than once per entry.
+ * Queries come from players and API clients, so regular expressions that keep matching for longer than
+ * {@value #MATCH_TIME_LIMIT_MILLIS} ms in total fail the query instead of tying up the thread; the limit
+ * covers every field of every level the query searches, not each field on its own.
+ */
+public final class ArchiveQuery {
+    static final int MAX_REGEX_LENGTH = 200;
+    static final long MATCH_TIME_LIMIT_MILLIS = 50;
+
+    private final String text;
+    private final List<String> keywords;
+    private final List<Pattern> patterns;
+    private final String leader;
+    private final boolean[] outcomes;
+
+    private ArchiveQuery(String text, List<String> keywords, List<Pattern> patterns, String leader, boolean[] outcomes) {
+        this.text = text;
+        this.keywords = keywords;
+        this.patterns = patterns;
+        this.leader = leader;
+        this.outcomes = outcomes;
+    }
+
+    /**
+     * Parses a search.
+     * @param text The search as typed; empty matches every entry.
+     * @return The query.
+     * @throws IllegalArgumentException If a phrase or regular expression is not closed, a regular
+     *                                  expression is invalid or too long, a {@code leader:} term is
+     *                                  repeated, or an {@code is:} value is unknown.
+     */
+    public static ArchiveQuery parse(String text) {
+        List<String> keywords = new ArrayList<>();
+        List<Pattern> patterns = new ArrayList<>();
+        String leader = null;
+        boolean[] outcomes = null;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '"') {
+                int end = closing(text, i, '"');
+                patterns.add(phrase(text.substring(i + 1, end)));
+                i = end + 1;
+            } else if (c == '/') {
+                int end = closing(text, i, '/');
+                patterns.add(regex(text.substring(i + 1, end)));
+                i = end + 1;
+            } else if (text.regionMatches(true, i, "leader:", 0, 7)) {
+                if (leader != null) {
+                    throw new IllegalArgumentException("Only one leader: term is allowed");
+                }
+                i += 7;
+                int end;
+                if (i < text.length() && text.charAt(i) == '"') {
+                    end = closing(text, i, '"');
+                    leader = fold(text.substring(i + 1, end).trim());
+                    end++;
+                } else {
+                    end = wordEnd(text, i);
+                    leader = fold(text.substring(i, end));
+                }
+                i = end;
+            } else if (text.regionMatches(true, i, "is:", 0, 3)) {
+                int end = wordEnd(text, i + 3);
+                if (outcomes == null) {
+                    outcomes = new boolean[3];
+                }
+                switch (fold(text.substring(i + 3, end))) {
+                    case "correct" -> outcomes[SessionHistory.CORRECT] = true;
+                    case "incorrect" -> outcomes[SessionHistory.INCORRECT] = true;
+                    case "skipped" -> outcomes[SessionHistory.SKIPPED] = true;
+                    case "answered" -> outcomes[SessionHistory.CORRECT] = outcomes[SessionHistory.INCORRECT] = true;
+                    default -> throw new IllegalArgumentException("Unknown outcome \"" + text.substring(i + 3, end)
+                            + "\"; use correct, incorrect, skipped or answered");
+                }
+                i = end;
+            } else {
+                int end = wordEnd(text, i);
+                keywords.add(fold(text.substring(i, end)));
+                i = end;
+            }
+        }
+        return new ArchiveQuery(text.trim(), List.copyOf(keywords), List.copyOf(patterns),
+                leader == null || leader.isEmpty() ? null : leader, outcomes);
+    }
+
+    /**
+     * Checks whether a leader passes the leader predicate.
+     * @param leaderName The leader's name.
+     * @return True if there is no leader predicate or the name matches it.
+     */
+    public boolean matchesLeader(String leaderName) {
+        return leader == null || fold(leaderName).contains(leader);
+    }
+
+    /**
+     * Checks whether an outcome passes the outcome predicate.
+     * @param outcome One of the {@link SessionHistory} outcome constants.
+     * @return True if there is no outcome predicate or the outcome is one of those asked for.
+     */
+    public boolean matchesOutcome(byte outcome) {
+        return outcomes == null || outcomes[outcome];
+    }
+
+    /**
+     * Checks whether the query has any text predicate.
+     * @return True if it has keywords, phrases or regular expressions.
+     */
+    public boolean hasText() {
+        return !keywords.isEmpty() || !patterns.isEmpty();
+    }
+
+    /**
+     * Starts the time limit for one run of this query; pass the result to every
+     * {@link #matchesText(String, Level, long)} call the run makes.
+     * @return The deadline in {@link System#nanoTime()} terms.
+     */
+    public long matchDeadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MATCH_TIME_LIMIT_MILLIS);
+    }
+
+    /**
+     * Checks whether a level passes every text predicate. Each predicate may match any one of the
+     * leader's name, the description and the summary.
+     * @param leaderName The leader's name.
+     * @param level The level, or null if it is no longer in the catalog, in which case only the name is searched.
+     * @param deadlineNanos The deadline from {@link #matchDeadline()} shared by the whole query.
+     * @return True if every keyword, phrase and regular expression matches.
+     * @throws IllegalArgumentException If the deadline passes while matching regular expressions, or the
+     *         thread is interrupted.
+     */
+    public boolean matchesText(String leaderName, Level level, long deadlineNanos) {
+        String[] fields = level == null
+                ? new String[] {leaderName}
+                : new String[] {leaderName, level.getDescription(), level.getSummary()};
+        for (String keyword : keywords) {
+            boolean found = false;
+            for (String field : fields) {
+                if (field != null && fold(field).contains(keyword)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        for (Pattern pattern : patterns) {
+            // Short fields never reach the periodic check in BoundedText, so check once per pattern too.
+            BoundedText.checkDeadline(pattern, deadlineNanos);
+            boolean found = false;
+            for (String field : fields) {
+                if (field != null && pattern.matcher(new BoundedText(field, pattern, deadlineNanos)).find()) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private static Pattern phrase(String phrase) {
+        String[] words = phrase.trim().split("\\s+");
+        if (words.length == 1 && words[0].isEmpty()) {
+            throw new IllegalArgumentException("Empty phrase");
+        }
+        StringBuilder regex = new StringBuilder();
+        for (String word : words) {
+            regex.append(regex.isEmpty() ? "(?<![\\p{L}\\p{N}])" : "\\s+").append(Pattern.quote(word));
+        }
+        regex.append("(?![\\p{L}\\p{N}])");
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private static Pattern regex(String regex) {
+        if (regex.length() > MAX_REGEX_LENGTH) {
+            throw new IllegalArgumentException("Regular expression longer than " + MAX_REGEX_LENGTH + " characters");
+        }
+        try {
+            return Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid regular expression /" + regex + "/: " + e.getDescription());
+        }
+    }
+
+    /**
+     * Finds the closing delimiter of a quoted term; a backslash escapes a delimiter inside a regular expression.
+     */
+    private static int closing(String text, int open, char delimiter) {
+        for (int i = open + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && delimiter == '/' && i + 1 < text.length()) {
+                i++;
+            } else if (c == delimiter) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Missing closing " + delimiter + " in " + text.substring(open));
+    }
+
+    private static int wordEnd(String text, int start) {
+        int end = start;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static String fold(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Text that gives up a match once it has run past the query's deadline or the thread is interrupted.
+     * The regex engine reads every character through {@link #charAt}, so backtracking cannot avoid the check.
+     */
+    private static final class BoundedText implements CharSequence {
+        private static final int CHECK_INTERVAL = 1024;
+
+        private final String text;
+        private final Pattern pattern;
+        private final long deadlineNanos;
+        private int reads;
+
+        BoundedText(String text, Pattern pattern, long deadlineNanos) {
+            this.text = text;
+            this.pattern = pattern;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++reads == CHECK_INTERVAL) {
+                reads = 0;
+                checkDeadline(pattern, deadlineNanos);
+            }
+            return text.charAt(index);
+        }
+
+        static void checkDeadline(Pattern pattern, long deadlineNanos) {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                throw new IllegalArgumentException("Regular expression /" + pattern.pattern()
+                        + "/ took the search past its " + MATCH_TIME_LIMIT_MILLIS + " ms limit");
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalArgumentException("Search interrupted");
+            }
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BoundedText(text.substring(start, end), pattern, deadlineNanos);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.echoesofcommand;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Headless batch mode that grades a JSONL file of answer sessions through the {@link Game} engine.
+ * <p>
+ * Each input line is {@code {"username", "mode", "leader", "seed", "answers": [..]}}, where mode is
+ * {@code single} (which needs {@code leader}), {@code sequential} or {@code randomized}. Lines are
+ * streamed in fixed-size chunks; each chunk is graded in parallel and its results are written in
+ * input order, so memory stays flat however large the file is. Archive entries and player updates
+ * flow through a bulk event pipeline and are written to disk once at the end.
+ */
+public class BatchGrader {
+    private static final int CHUNK_SIZE = 4096;
+    private static final int PIPELINE_CAPACITY = 1 << 16;
+
+    private final ContentCatalog catalog;
+    private final PlayerManager players;
+    private final ArchiveManager archive;
+
+    /**
+     * One input session.
+     */
+    private static class Submission {
+        String username;
+        String mode;
+        String leader;
+        long seed;
+        int[] answers;
+    }
+
+    /**
+     * One graded session, written as one output line.
+     * @param line The 1-based input line number.
+     * @param username The player's username.
+     * @param score The number of correct answers.
+     * @param total The number of levels in the session.
+     * @param skipped The number of skipped levels.
+     * @param error The reason the line could not be graded, or null.
+     */
+    public record Result(long line, String username, Integer score, Integer total, Integer skipped, String error) {
+    }
+
+    /**
+     * Totals for a finished grading run.
+     * @param sessions The number of sessions graded.
+     * @param errors The number of lines that could not be graded.
+     * @param elapsedMillis The wall time of the run in milliseconds.
+     */
+    public record Summary(long sessions, long errors, long elapsedMillis) {
+    }
+
+    /**
+     * Creates a grader.
+     * @param catalog The content catalog to grade against.
+     * @param players The player manager whose records receive the sessions.
+     * @param archive The archive manager that receives every answer.
+     */
+    public BatchGrader(ContentCatalog catalog, PlayerManager players, ArchiveManager archive) {
+        this.catalog = catalog;
+        this.players = players;
+        this.archive = archive;
+    }
+
+    /**
+     * Grades every session in the input file and writes one result line per input line.
+     * @param input The JSONL file of sessions.
+     * @param output The JSONL file to write results to.
+     * @return The run totals.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    public Summary grade(Path input, Path output) throws IOException {
+        long start = System.currentTimeMillis();
+        long sessions = 0;
+        long errors = 0;
+        Gson gson = new Gson();
+        EventPipeline events = new EventPipeline(PIPELINE_CAPACITY, EventPipeline.Backpressure.BLOCK,
+                List.of(new EventPipeline.Named("archive", new ArchiveEventConsumer(archive, false)),
+                        new EventPipeline.Named("stats", new StatsEventConsumer(players, false)),
+                        new EventPipeline.Named("leaderboard", new LeaderboardEventConsumer(players))));
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            long firstLine = 1;
+            String line;
+            while (true) {
+                line = reader.readLine();
+                if (line != null) {
+                    chunk.add(line);
+                }
+                if (chunk.size() == CHUNK_SIZE || (line == null && !chunk.isEmpty())) {
+                    long base = firstLine;
+                    List<String> lines = chunk;
+                    List<Result> results = IntStream.range(0, lines.size())
+                            .parallel()
+                            .mapToObj(i -> gradeLine(base + i, lines.get(i), gson, events))
+                            .toList();
+                    for (Result result : results) {
+                        if (result == null) {
+                            continue;
+                        }
+                        if (result.error() != null) {
+                            errors++;
+                        } else {
+                            sessions++;
+                        }
+                        writer.write(gson.toJson(result));
+                        writer.newLine();
+                    }
+                    firstLine += chunk.size();
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+                if (line == null) {
+                    break;
+                }
+            }
+        } finally {
+            events.close();
+        }
+        archive.saveToJson();
+        players.save();
+        return new Summary(sessions, errors, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Grades one input line, or returns null for a blank line.
+     */
+    private Result gradeLine(long lineNumber, String line, Gson gson, EventPipeline events) {
+        if (line.isBlank()) {
+            return null;
+        }
+        Submission submission;
+        try {
+            submission = gson.fromJson(line, Submission.class);
+        } catch (JsonParseException e) {
+            return new Result(lineNumber, null, null, null, null, "Invalid JSON: " + e.getMessage());
+        }
+        if (submission == null || submission.username == null || submission.username.isBlank()) {
+            return new Result(lineNumber, null, null, null, null, "Missing username");
+        }
+        List<Leader> leaders;
+        int modeNumber;
+        boolean sequential = false;
+        boolean randomized = false;
+        String mode = submission.mode == null ? "" : submission.mode.toLowerCase();
+        switch (mode) {
+            case "single" -> {
+                Leader leader = submission.leader == null ? null : catalog.findLeader(submission.leader);
+                if (leader == null) {
+                    return new Result(lineNumber, submission.username, null, null, null, "Unknown leader: " + submission.leader);
+                }
+                leaders = List.of(leader);
+                modeNumber = 1;
+            }
+            case "sequential" -> {
+                leaders = catalog.getLeaders();
+                modeNumber = 2;
+                sequential = true;
+            }
+            case "randomized" -> {
+                leaders = catalog.getLeaders();
+                modeNumber = 3;
+                randomized = true;
+            }
+            default -> {
+                return new Result(lineNumber, submission.username, null, null, null, "Unknown mode: " + submission.mode);
+            }
+        }
+        ScriptedUI ui = new ScriptedUI(submission.username, modeNumber, submission.leader,
+                submission.answers != null ? submission.answers : new int[0]);
+        PlayerRecord player = players.getOrCreate(submission.username);
+        new Game(leaders, ui, player, events, sequential, randomized, new Random(submission.seed)).start();
+        return new Result(lineNumber, submission.username, ui.getFinalScore(), ui.getTotalLevels(), ui.getSkipped(), null);
+    }
+}
@@ -0,0 +1,181 @@
+package com.echoesofcommand;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Lazily loads the content catalog on first use and hands the same snapshot to every caller until the
+ * content changes.
+ * <p>
+ * When {@link #watch} is active, changes to content files are picked up by a background thread that
+ * reparses and validates the content and then swaps the new catalog in with a single volatile write.
+ * Catalogs are never modified after construction, so a session that already took its leaders from
+ * the old catalog finishes on it undisturbed, while sessions started afterwards see the new one.
+ * Content that fails to load or validate is reported and the current catalog stays in place.
+ */
+public class CatalogHolder implements AutoCloseable {
+    /** Quiet period after the last file event before reloading, so multi-step saves load once. */
+    private static final long DEBOUNCE_MILLIS = 250;
+
+    private final Supplier<ContentCatalog> loader;
+    private final List<Consumer<ContentCatalog>> listeners = new CopyOnWriteArrayList<>();
+    private volatile ContentCatalog current;
+    private volatile long generation;
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Creates a holder that loads the catalog on demand.
+     * @param loader Loads the catalog; may throw if the content is unavailable.
+     */
+    public CatalogHolder(Supplier<ContentCatalog> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Gets the catalog, loading and validating it on the first call.
+     * @return The current catalog.
+     * @throws IllegalStateException If the content cannot be loaded or is not playable; the next call tries again.
+     */
+    public ContentCatalog get() {
+        ContentCatalog catalog = current;
+        if (catalog == null) {
+            synchronized (this) {
+                catalog = current;
+                if (catalog == null) {
+                    catalog = loader.get();
+                    catalog.validate();
+                    current = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Gets the number of times the catalog has been replaced by a reload.
+     * @return The reload generation, 0 before any reload.
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Registers a callback run on the watcher thread after each successful reload.
+     * @param listener Receives the new catalog.
+     */
+    public void addReloadListener(Consumer<ContentCatalog> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Reparses and validates the content, and swaps it in if it is valid.
+     * Does nothing if the catalog was never loaded, since the first {@link #get()} reads fresh content anyway.
+     * @return True if a new catalog was swapped in.
+     */
+    public boolean reload() {
+        if (current == null) {
+            return false;
+        }
+        ContentCatalog fresh;
+        try {
+            fresh = loader.get();
+            fresh.validate();
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Keeping current content, reload failed: " + e.getMessage());
+            return false;
+        }
+        synchronized (this) {
+            current = fresh;
+            generation++;
+        }
+        for (Consumer<ContentCatalog> listener : listeners) {
+            listener.accept(fresh);
+        }
+        return true;
+    }
+
+    /**
+     * Starts watching content directories and reloading on changes to {@code *.json} files in them.
+     * @param directories The directories holding content files; missing directories are skipped.
+     * @throws IllegalStateException If the platform's watch service cannot be opened, or watching already started.
+     */
+    public synchronized void watch(Collection<Path> directories) {
+        if (watcher != null) {
+            throw new IllegalStateException("Content is already being watched");
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path directory : directories) {
+                if (directory.toFile().isDirectory()) {
+                    directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot watch content: " + e.getMessage(), e);
+        }
+        watcher = new Thread(this::runWatcher, "content-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops watching for content changes.
+     */
+    @Override
+    public synchronized void close() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not close content watcher: " + e.getMessage());
+        }
+        watcher.interrupt();
+    }
+
+    private void runWatcher() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                // Keep collecting events until the files have been quiet for the debounce period.
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed; stop watching.
+        }
+    }
+
+    private static boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (event.context() instanceof Path file && file.getFileName().toString().endsWith(".json")) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+}
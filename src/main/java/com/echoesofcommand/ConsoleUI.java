@@ -48,7 +48,8 @@ public class ConsoleUI implements GameUI {
 
     /**
      * Prompts the user to choose a play mode.
-     * @return 1 for single-leader mode, 2 for sequential mode, 3 for randomized mode, 4 to quit.
+     * @return 1 for single-leader mode, 2 for sequential mode, 3 for randomized mode,
+     *         4 to search the history catalog, 5 to quit.
      */
     @Override
     public int promptPlayMode() {
@@ -56,36 +57,37 @@ public class ConsoleUI implements GameUI {
         System.out.println("  1) Play ONE leader");
         System.out.println("  2) Play ALL leaders in sequence");
         System.out.println("  3) Play ALL leaders with randomized levels and choices");
-        System.out.println("  4) Quit");
-        System.out.print("Enter choice (1, 2, 3, or 4): ");
+        System.out.println("  4) Search the history catalog");
+        System.out.println("  5) Quit");
+        System.out.print("Enter choice (1–5): ");
         while (true) {
             try {
                 int mode = Integer.parseInt(sc.nextLine().trim());
-                if (mode >= 1 && mode <= 4) {
+                if (mode >= 1 && mode <= 5) {
                     return mode;
                 }
             } catch (NumberFormatException ignored) {
             }
-            System.out.print("Invalid. Please enter 1, 2, 3, or 4: ");
+            System.out.print("Invalid. Please enter 1, 2, 3, 4, or 5: ");
         }
     }
 
     /**
-     * Allows the user to select a leader from a list.
-     * @param leaders The list of available leaders.
-     * @return The selected Leader object.
+     * Allows the user to select a leader from the content index.
+     * @param leaders The index entries of the available leaders.
+     * @return The entry of the selected leader.
      */
     @Override
-    public Leader selectLeader(List<Leader> leaders) {
-        List<Leader> sorted = leaders.stream()
-                .sorted(Comparator.comparing(Leader::getName))
+    public ContentIndex.Entry selectLeader(List<ContentIndex.Entry> leaders) {
+        List<ContentIndex.Entry> sorted = leaders.stream()
+                .sorted(Comparator.comparing(ContentIndex.Entry::name))
                 .toList();
         System.out.println("\n=== Select a Leader ===");
         for (int i = 0; i < sorted.size(); i++) {
             System.out.printf("  %d) %s  —  %s%n",
                     i + 1,
-                    sorted.get(i).getName(),
-                    sorted.get(i).getBackstory()
+                    sorted.get(i).name(),
+                    sorted.get(i).backstory()
             );
         }
         System.out.print("Enter your choice (1–" + sorted.size() + "): ");
@@ -93,8 +95,8 @@ public class ConsoleUI implements GameUI {
             try {
                 int choice = Integer.parseInt(sc.nextLine().trim()) - 1;
                 if (choice >= 0 && choice < sorted.size()) {
-                    Leader selected = sorted.get(choice);
-                    System.out.println("You chose \"" + selected.getName() + "\"\n");
+                    ContentIndex.Entry selected = sorted.get(choice);
+                    System.out.println("You chose \"" + selected.name() + "\"\n");
                     return selected;
                 }
             } catch (NumberFormatException ignored) {
@@ -153,6 +155,14 @@ public class ConsoleUI implements GameUI {
         System.out.println("[No valid input — skipping level]");
     }
 
+    /**
+     * Displays a message when the session could not be started because the server is busy.
+     */
+    @Override
+    public void displayServerBusy() {
+        System.out.println("[The server is busy right now. Please try again in a moment.]");
+    }
+
     /**
      * Displays the result of a player's choice.
      * @param correct True if the choice was correct.
@@ -203,10 +213,42 @@ public class ConsoleUI implements GameUI {
      */
     @Override
     public String promptSearchKeyword() {
-        System.out.print("Enter keyword to search: ");
+        System.out.println("Search by words, \"an exact phrase\", /a regex/, leader:name or is:correct|incorrect|skipped.");
+        System.out.print("Enter search: ");
         return sc.nextLine().trim();
     }
 
+    /**
+     * Asks whether to show the next page of archive search results.
+     * @return True to show more results, false to stop.
+     */
+    @Override
+    public boolean promptMoreResults() {
+        System.out.print("Show more results? (yes/no): ");
+        return sc.nextLine().trim().equalsIgnoreCase("yes");
+    }
+
+    /**
+     * Displays ranked results of a history catalog search.
+     * @param query The query that was searched.
+     * @param hits The ranked hits, best first.
+     */
+    @Override
+    public void displayContentSearchResults(String query, List<ContentSearchIndex.Hit> hits) {
+        if (hits.isEmpty()) {
+            System.out.println("[No history matches \"" + query + "\". Try another topic.]");
+            return;
+        }
+        System.out.println("\n=== History Search Results for \"" + query + "\" ===");
+        for (ContentSearchIndex.Hit hit : hits) {
+            if (hit.levelNumber() == 0) {
+                System.out.println(hit.leaderName() + " — " + hit.snippet());
+            } else {
+                System.out.println(hit.leaderName() + ", Level " + hit.levelNumber() + ": " + hit.snippet());
+            }
+        }
+    }
+
     /**
      * Prompts the user for a post-round option.
      * @return 1 to play again, 2 to switch user, 3 to view stats, 4 to quit.
@@ -232,24 +274,11 @@ public class ConsoleUI implements GameUI {
     }
 
     /**
-     * Displays the leaderboard.
+     * Displays the sequential leaderboard; single-leader results are shown per leader instead.
      * @param list The list of player records.
      */
     @Override
     public void displayLeaderboard(List<PlayerRecord> list) {
-        System.out.println("\n=== Single–Leader Best Scores ===");
-        System.out.printf("%-15s  %-5s  %-6s%n", "Player", "Score", "Time(s)");
-        for (PlayerRecord record : list) {
-            if (record.getBestSingleScore() > 0) {
-                System.out.printf(
-                        "%-15s  %-5d  %-6.2f%n",
-                        record.getUsername(),
-                        record.getBestSingleScore(),
-                        record.getBestSingleTimeMillis() / 1000.0
-                );
-            }
-        }
-
         System.out.println("\n=== Sequential (All Leaders) Best Scores ===");
         System.out.printf("%-15s  %-5s  %-6s%n", "Player", "Score", "Time(s)");
         for (PlayerRecord record : list) {
@@ -264,6 +293,71 @@ public class ConsoleUI implements GameUI {
         }
     }
 
+    /**
+     * Displays the single-leader leaderboard for one leader.
+     * @param leader The leader's name.
+     * @param standings The standings, best first.
+     */
+    @Override
+    public void displayLeaderLeaderboard(String leader, List<Standing> standings) {
+        System.out.println("\n=== " + leader + " — Single–Leader Best Scores ===");
+        System.out.printf("%-15s  %-5s  %-6s%n", "Player", "Score", "Time(s)");
+        for (Standing standing : standings) {
+            System.out.printf(
+                    "%-15s  %-5d  %-6.2f%n",
+                    standing.username(),
+                    standing.score(),
+                    standing.timeMillis() / 1000.0
+            );
+        }
+    }
+
+    /**
+     * Displays a rolling time-window leaderboard.
+     * @param window The time window shown.
+     * @param standings The standings, best first.
+     */
+    @Override
+    public void displayWindowedLeaderboard(LeaderboardWindow window, List<Standing> standings) {
+        System.out.println("\n=== " + window.getLabel() + " Best Scores ===");
+        if (standings.isEmpty()) {
+            System.out.println("No sessions played in this window yet.");
+            return;
+        }
+        System.out.printf("%-15s  %-5s  %-6s%n", "Player", "Score", "Time(s)");
+        for (Standing standing : standings) {
+            System.out.printf(
+                    "%-15s  %-5d  %-6.2f%n",
+                    standing.username(),
+                    standing.score(),
+                    standing.timeMillis() / 1000.0
+            );
+        }
+    }
+
+    /**
+     * Displays the live standings of a tournament between levels.
+     * @param top The leading standings, best first; the time is the total think time.
+     * @param rank The player's own rank, starting at 1.
+     * @param participants The number of participants.
+     */
+    @Override
+    public void displayTournamentStandings(List<Standing> top, int rank, int participants) {
+        System.out.println("\n=== Tournament Standings ===");
+        System.out.printf("%-4s  %-15s  %-5s  %-6s%n", "#", "Player", "Score", "Time(s)");
+        int position = 0;
+        for (Standing standing : top) {
+            System.out.printf(
+                    "%-4d  %-15s  %-5d  %-6.2f%n",
+                    ++position,
+                    standing.username(),
+                    standing.score(),
+                    standing.timeMillis() / 1000.0
+            );
+        }
+        System.out.println("You are ranked " + rank + " of " + participants + ".");
+    }
+
     /**
      * Displays a goodbye message.
      */
@@ -318,5 +412,10 @@ public class ConsoleUI implements GameUI {
         System.out.printf("Total Levels Played: %d%n", player.getTotalLevelsPlayed());
         System.out.printf("Accuracy: %.2f%%%n", player.getAccuracy());
         System.out.printf("Average Time per Level: %.2f seconds%n", player.getAverageTimePerLevel());
+        long median = player.getThinkTimePercentile(50, null);
+        if (median >= 0) {
+            System.out.printf("Think Time per Answer: median %.2f seconds, 90th percentile %.2f seconds%n",
+                    median / 1000.0, player.getThinkTimePercentile(90, null) / 1000.0);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.echoesofcommand;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the loaded history content together with its derived search index.
+ */
+public class ContentCatalog {
+    private final List<Leader> leaders;
+    private final ContentSearchIndex searchIndex;
+    private final Map<String, Map<Integer, Level>> levelsByLeader = new HashMap<>();
+
+    /**
+     * Creates a catalog and builds its search index once.
+     * @param leaders The loaded leaders.
+     */
+    public ContentCatalog(List<Leader> leaders) {
+        this.leaders = List.copyOf(leaders);
+        this.searchIndex = new ContentSearchIndex(this.leaders);
+        for (Leader leader : this.leaders) {
+            Map<Integer, Level> levels = new HashMap<>();
+            if (leader.getLevels() != null) {
+                for (Level level : leader.getLevels()) {
+                    levels.put(level.getNumber(), level);
+                }
+            }
+            levelsByLeader.put(leader.getName(), levels);
+        }
+    }
+
+    /**
+     * Loads the catalog from a JSON resource.
+     * @param loader The loader used to parse the resource.
+     * @param resourcePath The path to the JSON resource.
+     * @return The loaded catalog.
+     */
+    public static ContentCatalog load(JsonLoader loader, String resourcePath) {
+        FlightEvents.ContentLoad event = new FlightEvents.ContentLoad();
+        event.begin();
+        return recordLoad(event, new ContentCatalog(loader.loadLeaders(resourcePath)));
+    }
+
+    /**
+     * Loads the catalog from the base resource merged with every discovered content pack.
+     * @param loader The loader used to discover and parse the packs.
+     * @param baseResource The classpath path of the base content file.
+     * @param packsResourceDir The classpath directory holding additional packs.
+     * @param packsDirectory An optional filesystem directory holding packs, or null.
+     * @return The loaded catalog.
+     */
+    public static ContentCatalog load(JsonLoader loader, String baseResource, String packsResourceDir, Path packsDirectory) {
+        FlightEvents.ContentLoad event = new FlightEvents.ContentLoad();
+        event.begin();
+        return recordLoad(event, new ContentCatalog(loader.loadAllPacks(baseResource, packsResourceDir, packsDirectory)));
+    }
+
+    private static ContentCatalog recordLoad(FlightEvents.ContentLoad event, ContentCatalog catalog) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = "catalog";
+            event.leaders = catalog.leaders.size();
+            event.commit();
+        }
+        return catalog;
+    }
+
+    /**
+     * Gets all leaders in the catalog.
+     * @return An unmodifiable list of leaders.
+     */
+    public List<Leader> getLeaders() {
+        return leaders;
+    }
+
+    /**
+     * Finds a leader by exact name.
+     * @param name The leader's name.
+     * @return The leader, or null if not present.
+     */
+    public Leader findLeader(String name) {
+        for (Leader leader : leaders) {
+            if (leader.getName().equals(name)) {
+                return leader;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that the content is playable: every leader has a name and levels, level numbers are unique
+     * per leader and between 0 and {@link Level#MAX_NUMBER}, and every level has text and at least two
+     * choices of which exactly one is historical.
+     * @throws IllegalStateException Naming the first problem found.
+     */
+    public void validate() {
+        if (leaders.isEmpty()) {
+            throw new IllegalStateException("No leaders found in the content.");
+        }
+        for (Leader leader : leaders) {
+            if (leader.getName() == null || leader.getName().isBlank()) {
+                throw new IllegalStateException("A leader has no name.");
+            }
+            List<Level> levels = leader.getLevels();
+            if (levels == null || levels.isEmpty()) {
+                throw new IllegalStateException("Leader " + leader.getName() + " has no levels.");
+            }
+            if (levelsByLeader.get(leader.getName()).size() != levels.size()) {
+                throw new IllegalStateException("Leader " + leader.getName() + " has duplicate level numbers.");
+            }
+            for (Level level : levels) {
+                String where = leader.getName() + " level " + level.getNumber();
+                if (!Level.isValidNumber(level.getNumber())) {
+                    throw new IllegalStateException(where + " is numbered outside 0.." + Level.MAX_NUMBER + ".");
+                }
+                if (level.getDescription() == null || level.getSummary() == null) {
+                    throw new IllegalStateException(where + " is missing its description or summary.");
+                }
+                List<Choice> choices = level.getChoices();
+                if (choices == null || choices.size() < 2) {
+                    throw new IllegalStateException(where + " needs at least two choices.");
+                }
+                if (choices.stream().filter(Choice::isHistorical).count() != 1) {
+                    throw new IllegalStateException(where + " must have exactly one historical choice.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds a level by leader name and level number.
+     * @param leaderName The leader's name.
+     * @param number The level number.
+     * @return The level as defined in the content, or null if not present.
+     */
+    public Level findLevel(String leaderName, int number) {
+        Map<Integer, Level> levels = levelsByLeader.get(leaderName);
+        return levels == null ? null : levels.get(number);
+    }
+
+    /**
+     * Searches level descriptions, choices, summaries and leader backstories.
+     * @param query The free-text query.
+     * @param limit The maximum number of results.
+     * @return The ranked hits.
+     */
+    public List<ContentSearchIndex.Hit> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+}
@@ -0,0 +1,308 @@
+package com.echoesofcommand;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of leader name to byte range within the content files, used to materialize one leader at a time.
+ * <p>
+ * For content stored as plain files the index is written once to a {@code .idx} sidecar next to the
+ * content file and reused for as long as the file's size and modification time are unchanged.
+ * Content inside a jar cannot have a sidecar, so its index is rebuilt in memory on first use.
+ */
+public class ContentIndex {
+    private static final int FORMAT_VERSION = 1;
+    private static final String SIDECAR_SUFFIX = ".idx";
+
+    private final List<Entry> entries;
+
+    /**
+     * The location of one leader inside a content file.
+     * @param name The leader's name.
+     * @param backstory The leader's backstory, kept so the picker never has to parse levels.
+     * @param source The content file holding the leader.
+     * @param offset The byte offset of the leader's JSON object.
+     * @param length The byte length of the leader's JSON object.
+     */
+    public record Entry(String name, String backstory, URL source, long offset, int length) {
+    }
+
+    /**
+     * On-disk form of a sidecar index.
+     */
+    private static class Sidecar {
+        int version;
+        long contentSize;
+        long contentModified;
+        List<SidecarEntry> entries = new ArrayList<>();
+    }
+
+    private static class SidecarEntry {
+        String name;
+        String backstory;
+        long offset;
+        int length;
+    }
+
+    private ContentIndex(List<Entry> entries) {
+        this.entries = List.copyOf(entries);
+    }
+
+    /**
+     * Builds or reuses the index for the base content file and every discovered content pack.
+     * As when the full catalog is loaded, a leader defined identically in several packs is kept once,
+     * and a leader defined differently in several packs is an error.
+     * @param loader The loader used to discover packs.
+     * @param baseResource The classpath path of the base content file.
+     * @param packsResourceDir The classpath directory holding additional packs.
+     * @param packsDirectory An optional filesystem directory holding packs, or null.
+     * @return The index over all packs.
+     * @throws IllegalStateException If a content file cannot be read or indexed, or packs define a leader differently.
+     */
+    public static ContentIndex load(JsonLoader loader, String baseResource, String packsResourceDir, Path packsDirectory) {
+        FlightEvents.ContentLoad event = new FlightEvents.ContentLoad();
+        event.begin();
+        List<URL> packs = loader.discoverPacks(baseResource, packsResourceDir, packsDirectory);
+        if (packs.isEmpty()) {
+            throw new IllegalArgumentException("Resource not found: " + baseResource);
+        }
+        List<Entry> all = new ArrayList<>();
+        Map<String, Entry> first = new HashMap<>();
+        List<String> conflicts = new ArrayList<>();
+        int duplicates = 0;
+        Gson gson = new Gson();
+        for (URL pack : packs) {
+            for (Entry entry : indexPack(pack)) {
+                Entry existing = first.putIfAbsent(entry.name(), entry);
+                if (existing == null) {
+                    all.add(entry);
+                } else if (gson.toJson(read(existing)).equals(gson.toJson(read(entry)))) {
+                    // Only repeated names are parsed, so the usual case still reads no levels.
+                    duplicates++;
+                } else {
+                    conflicts.add(entry.name() + " (" + existing.source() + " vs " + entry.source() + ")");
+                }
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalStateException("Conflicting leader definitions: " + String.join(", ", conflicts));
+        }
+        if (duplicates > 0) {
+            System.err.println("Warning: Ignored " + duplicates + " duplicate leader definition(s) across content packs.");
+        }
+        if (all.isEmpty()) {
+            throw new IllegalStateException("No leaders found in the JSON file.");
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = "index";
+            event.leaders = all.size();
+            event.commit();
+        }
+        return new ContentIndex(all);
+    }
+
+    /**
+     * Gets the indexed leaders without parsing any levels.
+     * @return The index entries in discovery order.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Parses a single leader, including its levels, from its byte range.
+     * @param entry The index entry of the leader.
+     * @return The fully loaded leader.
+     * @throws IllegalStateException If the range cannot be read or parsed.
+     */
+    public Leader materialize(Entry entry) {
+        FlightEvents.ContentLoad event = new FlightEvents.ContentLoad();
+        event.begin();
+        Leader leader = read(entry);
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = "leader";
+            event.leader = entry.name();
+            event.leaders = 1;
+            event.commit();
+        }
+        return leader;
+    }
+
+    private static Leader read(Entry entry) {
+        try {
+            byte[] bytes = readRange(entry.source(), entry.offset(), entry.length());
+            Leader leader = new Gson().fromJson(new String(bytes, StandardCharsets.UTF_8), Leader.class);
+            if (leader == null || !entry.name().equals(leader.getName())) {
+                throw new IllegalStateException("Index is stale for leader " + entry.name());
+            }
+            return leader;
+        } catch (IOException e) {
+            throw new IllegalStateException("Error loading leader " + entry.name() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Entry> indexPack(URL pack) {
+        try {
+            if (!"file".equals(pack.getProtocol())) {
+                try (InputStream in = pack.openStream()) {
+                    return scan(pack, in.readAllBytes());
+                }
+            }
+            Path content = Paths.get(pack.toURI());
+            Path sidecarPath = content.resolveSibling(content.getFileName() + SIDECAR_SUFFIX);
+            long size = Files.size(content);
+            long modified = Files.getLastModifiedTime(content).toMillis();
+            List<Entry> cached = readSidecar(pack, sidecarPath, size, modified);
+            if (cached != null) {
+                return cached;
+            }
+            List<Entry> built = scan(pack, Files.readAllBytes(content));
+            writeSidecar(sidecarPath, built, size, modified);
+            return built;
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Error indexing " + pack + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Entry> readSidecar(URL pack, Path sidecarPath, long size, long modified) {
+        if (!Files.exists(sidecarPath)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(sidecarPath, StandardCharsets.UTF_8)) {
+            Sidecar sidecar = new Gson().fromJson(reader, Sidecar.class);
+            if (sidecar == null || sidecar.version != FORMAT_VERSION
+                    || sidecar.contentSize != size || sidecar.contentModified != modified) {
+                return null;
+            }
+            List<Entry> entries = new ArrayList<>(sidecar.entries.size());
+            for (SidecarEntry e : sidecar.entries) {
+                entries.add(new Entry(e.name, e.backstory, pack, e.offset, e.length));
+            }
+            return entries;
+        } catch (Exception e) {
+            System.err.println("Warning: Ignoring unreadable content index " + sidecarPath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeSidecar(Path sidecarPath, List<Entry> entries, long size, long modified) {
+        Sidecar sidecar = new Sidecar();
+        sidecar.version = FORMAT_VERSION;
+        sidecar.contentSize = size;
+        sidecar.contentModified = modified;
+        for (Entry entry : entries) {
+            SidecarEntry e = new SidecarEntry();
+            e.name = entry.name();
+            e.backstory = entry.backstory();
+            e.offset = entry.offset();
+            e.length = entry.length();
+            sidecar.entries.add(e);
+        }
+        try (Writer writer = Files.newBufferedWriter(sidecarPath, StandardCharsets.UTF_8)) {
+            new Gson().toJson(sidecar, writer);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write content index " + sidecarPath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the byte range of every top-level object in a JSON array and reads its name and backstory.
+     * Only structural ASCII bytes are inspected, so multi-byte UTF-8 text never affects the offsets.
+     */
+    private static List<Entry> scan(URL pack, byte[] bytes) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        int depth = 0;
+        boolean inString = false;
+        int start = -1;
+        for (int i = 0; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (inString) {
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (b) {
+                case '"' -> inString = true;
+                case '[', '{' -> {
+                    if (depth == 1 && b == '{') {
+                        start = i;
+                    }
+                    depth++;
+                }
+                case ']', '}' -> {
+                    depth--;
+                    if (depth == 1 && b == '}') {
+                        String json = new String(bytes, start, i + 1 - start, StandardCharsets.UTF_8);
+                        String[] header = readHeader(json);
+                        entries.add(new Entry(header[0], header[1], pack, start, i + 1 - start));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static String[] readHeader(String json) throws IOException {
+        String[] header = new String[2];
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "name" -> header[0] = reader.nextString();
+                    case "backstory" -> header[1] = reader.nextString();
+                    default -> reader.skipValue();
+                }
+            }
+        }
+        if (header[0] == null) {
+            throw new IOException("Leader without a name in content file");
+        }
+        return header;
+    }
+
+    private static byte[] readRange(URL source, long offset, int length) throws IOException {
+        if ("file".equals(source.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Paths.get(source.toURI()), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        throw new IOException("Content file is shorter than its index");
+                    }
+                }
+                return buffer.array();
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        try (InputStream in = source.openStream()) {
+            in.skipNBytes(offset);
+            return in.readNBytes(length);
+        }
+    }
+}
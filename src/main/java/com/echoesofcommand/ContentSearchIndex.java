@@ -0,0 +1,244 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Trigram index over the history content catalog, ranked with a BM25-style score.
+ * <p>
+ * Every level becomes one document (leader name, description, choices and summary) and every
+ * leader contributes one extra document for its backstory. Text is lower-cased and split into
+ * words, and each word is padded and cut into character trigrams, so a query with a typo still
+ * shares most of its trigrams with the intended word. Postings are frozen into sorted primitive
+ * arrays once at build time; a query only touches the postings of its own trigrams.
+ */
+public class ContentSearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double MIN_TRIGRAM_MATCH = 0.5;
+
+    private final String[] docLeader;
+    private final int[] docLevel;
+    private final String[] docSnippet;
+    private final int[] docLength;
+    private final double avgDocLength;
+
+    private final long[] trigramKeys;
+    private final int[] postingStart;
+    private final int[] postingDocs;
+    private final int[] postingFreqs;
+
+    /**
+     * A single ranked search result.
+     * @param leaderName The leader the matching document belongs to.
+     * @param levelNumber The level number, or 0 when the match is the leader's backstory.
+     * @param snippet The level description or leader backstory.
+     * @param score The BM25 relevance score.
+     */
+    public record Hit(String leaderName, int levelNumber, String snippet, double score) {
+    }
+
+    /**
+     * Builds the index over all levels and backstories of the given leaders.
+     * @param leaders The loaded leaders.
+     */
+    public ContentSearchIndex(List<Leader> leaders) {
+        List<String> leaderNames = new ArrayList<>();
+        List<Integer> levelNumbers = new ArrayList<>();
+        List<String> snippets = new ArrayList<>();
+        Map<Long, int[]> termFreqs = new HashMap<>();
+        Map<Long, IntBuffer> postings = new HashMap<>();
+        List<Integer> lengths = new ArrayList<>();
+
+        for (Leader leader : leaders) {
+            addDocument(leader.getName(), 0, leader.getBackstory(),
+                    leader.getName() + " " + leader.getBackstory(),
+                    leaderNames, levelNumbers, snippets, lengths, termFreqs, postings);
+            if (leader.getLevels() == null) {
+                continue;
+            }
+            for (Level level : leader.getLevels()) {
+                StringBuilder text = new StringBuilder(leader.getName())
+                        .append(' ').append(level.getDescription())
+                        .append(' ').append(level.getSummary());
+                for (Choice choice : level.getChoices()) {
+                    text.append(' ').append(choice.getText());
+                }
+                addDocument(leader.getName(), level.getNumber(), level.getDescription(), text.toString(),
+                        leaderNames, levelNumbers, snippets, lengths, termFreqs, postings);
+            }
+        }
+
+        int n = leaderNames.size();
+        this.docLeader = leaderNames.toArray(new String[0]);
+        this.docLevel = levelNumbers.stream().mapToInt(Integer::intValue).toArray();
+        this.docSnippet = snippets.toArray(new String[0]);
+        this.docLength = lengths.stream().mapToInt(Integer::intValue).toArray();
+        long totalLength = 0;
+        for (int length : docLength) {
+            totalLength += length;
+        }
+        this.avgDocLength = n == 0 ? 0 : (double) totalLength / n;
+
+        this.trigramKeys = postings.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        this.postingStart = new int[trigramKeys.length + 1];
+        int total = 0;
+        for (IntBuffer buffer : postings.values()) {
+            total += buffer.size;
+        }
+        this.postingDocs = new int[total];
+        this.postingFreqs = new int[total];
+        int offset = 0;
+        for (int i = 0; i < trigramKeys.length; i++) {
+            IntBuffer buffer = postings.get(trigramKeys[i]);
+            postingStart[i] = offset;
+            System.arraycopy(buffer.docs, 0, postingDocs, offset, buffer.size);
+            System.arraycopy(buffer.freqs, 0, postingFreqs, offset, buffer.size);
+            offset += buffer.size;
+        }
+        postingStart[trigramKeys.length] = offset;
+    }
+
+    /**
+     * Searches the catalog and returns the best matches first.
+     * @param query The free-text query; typos are tolerated.
+     * @param limit The maximum number of results.
+     * @return The ranked hits, possibly empty.
+     */
+    public List<Hit> search(String query, int limit) {
+        Map<Long, Integer> queryTrigrams = new HashMap<>();
+        forEachTrigram(query, key -> queryTrigrams.merge(key, 1, Integer::sum));
+        if (queryTrigrams.isEmpty() || limit <= 0 || docLeader.length == 0) {
+            return List.of();
+        }
+
+        int n = docLeader.length;
+        // Only documents in the postings of the query's trigrams are scored, so cost follows the matches, not the catalog.
+        Map<Integer, Score> scores = new HashMap<>();
+        for (Map.Entry<Long, Integer> term : queryTrigrams.entrySet()) {
+            int idx = Arrays.binarySearch(trigramKeys, term.getKey());
+            if (idx < 0) {
+                continue;
+            }
+            int from = postingStart[idx];
+            int to = postingStart[idx + 1];
+            int df = to - from;
+            double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            for (int p = from; p < to; p++) {
+                int doc = postingDocs[p];
+                int tf = postingFreqs[p];
+                double norm = tf + K1 * (1 - B + B * docLength[doc] / avgDocLength);
+                Score score = scores.computeIfAbsent(doc, d -> new Score());
+                score.value += term.getValue() * idf * tf * (K1 + 1) / norm;
+                score.matched++;
+            }
+        }
+
+        int required = (int) Math.ceil(queryTrigrams.size() * MIN_TRIGRAM_MATCH);
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit, Comparator.comparingDouble(Hit::score));
+        for (Map.Entry<Integer, Score> entry : scores.entrySet()) {
+            Score score = entry.getValue();
+            if (score.matched < required) {
+                continue;
+            }
+            if (top.size() < limit || score.value > top.peek().score()) {
+                int doc = entry.getKey();
+                top.add(new Hit(docLeader[doc], docLevel[doc], docSnippet[doc], score.value));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return hits;
+    }
+
+    /**
+     * Gets the number of indexed documents.
+     * @return The document count.
+     */
+    public int size() {
+        return docLeader.length;
+    }
+
+    private static void addDocument(String leader, int level, String snippet, String text,
+                                    List<String> leaderNames, List<Integer> levelNumbers, List<String> snippets,
+                                    List<Integer> lengths, Map<Long, int[]> scratch, Map<Long, IntBuffer> postings) {
+        int doc = leaderNames.size();
+        leaderNames.add(leader);
+        levelNumbers.add(level);
+        snippets.add(snippet);
+        scratch.clear();
+        int[] length = {0};
+        forEachTrigram(text, key -> {
+            scratch.computeIfAbsent(key, k -> new int[1])[0]++;
+            length[0]++;
+        });
+        lengths.add(length[0]);
+        for (Map.Entry<Long, int[]> entry : scratch.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new IntBuffer()).add(doc, entry.getValue()[0]);
+        }
+    }
+
+    /**
+     * Emits the trigrams of every word in the text, each word padded with one space on both sides.
+     */
+    private static void forEachTrigram(String text, LongConsumer consumer) {
+        if (text == null) {
+            return;
+        }
+        String normalized = text.toLowerCase();
+        int i = 0;
+        int len = normalized.length();
+        while (i < len) {
+            while (i < len && !Character.isLetterOrDigit(normalized.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < len && Character.isLetterOrDigit(normalized.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                String word = " " + normalized.substring(start, i) + " ";
+                for (int j = 0; j + 3 <= word.length(); j++) {
+                    consumer.accept(((long) word.charAt(j) << 32) | ((long) word.charAt(j + 1) << 16) | word.charAt(j + 2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Running score of one document for the current query.
+     */
+    private static class Score {
+        double value;
+        int matched;
+    }
+
+    /**
+     * Growable pair of primitive arrays used only while building the postings.
+     */
+    private static class IntBuffer {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.echoesofcommand;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming conversion between the single-file JSON formats and the newer storage formats:
+ * <ul>
+ *     <li>{@code players.json}, one object of every record, to and from a {@link PlayerStore} directory</li>
+ *     <li>the old {@code archive.json} array with text copies to and from the compact archive format</li>
+ * </ul>
+ * Every conversion reads one record at a time with {@link JsonReader} and writes it straight out with
+ * {@link JsonWriter} or the store, so memory use does not grow with the data; the only thing kept is
+ * the archive's leader table, which has one name per leader. File targets are written to a temporary
+ * file and moved into place only once complete. After converting, the target is read back and counted,
+ * and the {@link Report} shows whether every record written arrived.
+ */
+public final class DataMigration {
+    /** Records between progress callbacks. */
+    static final long PROGRESS_INTERVAL = 10_000;
+
+    private static final Gson GSON = new Gson();
+
+    private DataMigration() {
+    }
+
+    /**
+     * Progress of a running conversion.
+     * @param phase What is being done, such as {@code "players import"} or {@code "archive verify"}.
+     * @param records The records handled so far in this phase.
+     * @param bytesRead The bytes of the source read so far, or -1 if the source is not a file.
+     * @param totalBytes The source size in bytes, or -1 if unknown.
+     */
+    public record Progress(String phase, long records, long bytesRead, long totalBytes) {
+        /**
+         * Gets how much of the source has been read.
+         * @return The percentage between 0 and 100, or -1 if unknown.
+         */
+        public int percent() {
+            return totalBytes <= 0 || bytesRead < 0 ? -1 : (int) Math.min(100, bytesRead * 100 / totalBytes);
+        }
+    }
+
+    /**
+     * The outcome of a conversion.
+     * @param read The records read from the source.
+     * @param written The records written to the target.
+     * @param skipped The source records that were empty or unusable and not written.
+     * @param verified The written records found when reading the target back.
+     * @param elapsedMillis The time taken, including verification.
+     */
+    public record Report(long read, long written, long skipped, long verified, long elapsedMillis) {
+        /**
+         * Checks that every written record was found in the target.
+         * @return True if the verified count matches the written count.
+         */
+        public boolean isVerified() {
+            return verified == written;
+        }
+    }
+
+    /**
+     * Copies every record from a {@code players.json} file into a player store, replacing stored records with the same username.
+     * @param source The players file, a JSON object of records keyed by username.
+     * @param store The target store.
+     * @param progress Receives progress updates, or null.
+     * @return The counts.
+     * @throws IOException If the source cannot be read or is malformed.
+     * @throws UncheckedIOException If a record cannot be written to the store.
+     */
+    public static Report importPlayers(Path source, PlayerStore store, Consumer<Progress> progress) throws IOException {
+        long start = System.nanoTime();
+        long read = 0;
+        long written = 0;
+        try (CountingReader in = CountingReader.open(source)) {
+            JsonReader reader = in.json();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                PlayerRecord record = GSON.fromJson(reader, PlayerRecord.class);
+                read++;
+                if (record != null && record.getUsername() != null) {
+                    store.write(record);
+                    written++;
+                }
+                in.report("players import", read, progress);
+            }
+            reader.endObject();
+        }
+        // Read the source again and check each written record is now in the store.
+        long verified = 0;
+        long checked = 0;
+        try (CountingReader in = CountingReader.open(source)) {
+            JsonReader reader = in.json();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                PlayerRecord record = GSON.fromJson(reader, PlayerRecord.class);
+                if (record != null && record.getUsername() != null && store.contains(record.getUsername())) {
+                    verified++;
+                }
+                in.report("players verify", ++checked, progress);
+            }
+            reader.endObject();
+        }
+        return new Report(read, written, read - written, verified, elapsedSince(start));
+    }
+
+    /**
+     * Writes every record in a player store to a single {@code players.json} file.
+     * @param store The source store.
+     * @param target The players file to create or replace.
+     * @param progress Receives progress updates, or null.
+     * @return The counts.
+     * @throws IOException If the target cannot be written.
+     */
+    public static Report exportPlayers(PlayerStore store, Path target, Consumer<Progress> progress) throws IOException {
+        long start = System.nanoTime();
+        long[] written = new long[1];
+        Path temp = tempFor(target);
+        try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            store.forEach(record -> {
+                try {
+                    writer.name(record.getUsername());
+                    GSON.toJson(record, PlayerRecord.class, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++written[0] % PROGRESS_INTERVAL == 0 && progress != null) {
+                    progress.accept(new Progress("players export", written[0], -1, -1));
+                }
+            });
+            writer.endObject();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        }
+        moveIntoPlace(temp, target);
+        long verified = 0;
+        try (CountingReader in = CountingReader.open(target)) {
+            JsonReader reader = in.json();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                reader.skipValue();
+                in.report("players verify", ++verified, progress);
+            }
+            reader.endObject();
+        }
+        return new Report(written[0], written[0], 0, verified, elapsedSince(start));
+    }
+
+    /**
+     * Converts an archive in the old array format into the compact format {@link ArchiveManager} saves.
+     * The source is read twice: once to build the leader table and once to write the entries.
+     * @param source The old archive file.
+     * @param target The compact archive to create or replace; may be the same file as the source.
+     * @param progress Receives progress updates, or null.
+     * @return The counts.
+     * @throws IOException If the source cannot be read or is not in the old format, or the target cannot be written.
+     */
+    public static Report importArchive(Path source, Path target, Consumer<Progress> progress) throws IOException {
+        long start = System.nanoTime();
+        Map<String, Integer> leaderIds = new LinkedHashMap<>();
+        long read = 0;
+        try (CountingReader in = CountingReader.open(source)) {
+            JsonReader reader = in.json();
+            expectLegacy(reader, source);
+            reader.beginArray();
+            while (reader.hasNext()) {
+                ArchiveManager.LegacyEntry legacy = GSON.fromJson(reader, ArchiveManager.LegacyEntry.class);
+                read++;
+                if (legacy != null && legacy.leader != null) {
+                    leaderIds.putIfAbsent(legacy.leader, leaderIds.size());
+                }
+                in.report("archive scan", read, progress);
+            }
+            reader.endArray();
+        }
+        long written = 0;
+        Path temp = tempFor(target);
+        try (CountingReader in = CountingReader.open(source);
+             JsonWriter writer = new JsonWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("version").value(ArchiveManager.FORMAT_VERSION);
+            writer.name("leaders").beginArray();
+            for (String leader : leaderIds.keySet()) {
+                writer.value(leader);
+            }
+            writer.endArray();
+            writer.name("entries").beginArray();
+            JsonReader reader = in.json();
+            reader.beginArray();
+            long converted = 0;
+            while (reader.hasNext()) {
+                ArchiveManager.LegacyEntry legacy = GSON.fromJson(reader, ArchiveManager.LegacyEntry.class);
+                if (legacy != null && legacy.leader != null && Level.isValidNumber(legacy.levelNumber)) {
+                    boolean skipped = legacy.playerChoice == null || legacy.playerChoice.isEmpty();
+                    writer.beginArray()
+                            .value(leaderIds.get(legacy.leader))
+                            .value(legacy.levelNumber)
+                            .value(skipped ? ArchiveManager.SKIPPED : ArchiveManager.LEGACY_ANSWER)
+                            .value(legacy.isCorrect ? 1 : 0)
+                            .value(0L)
+                            .endArray();
+                    written++;
+                }
+                in.report("archive import", ++converted, progress);
+            }
+            reader.endArray();
+            writer.endArray();
+            writer.endObject();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        moveIntoPlace(temp, target);
+        long verified = countCompactEntries(target, progress);
+        return new Report(read, written, read - written, verified, elapsedSince(start));
+    }
+
+    /**
+     * Converts a compact archive back into the old array format, resolving every text field from the catalog.
+     * Entries whose level is no longer in the catalog get placeholder text.
+     * @param source The compact archive file.
+     * @param target The old-format archive to create or replace; must not be the source.
+     * @param catalog The catalog used to resolve entry text.
+     * @param progress Receives progress updates, or null.
+     * @return The counts.
+     * @throws IOException If the source cannot be read or is not in the compact format, or the target cannot be written.
+     */
+    public static Report exportArchive(Path source, Path target, ContentCatalog catalog, Consumer<Progress> progress) throws IOException {
+        long start = System.nanoTime();
+        long read = 0;
+        long written = 0;
+        Path temp = tempFor(target);
+        try (CountingReader in = CountingReader.open(source);
+             JsonWriter writer = new JsonWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+            JsonReader reader = in.json();
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new IOException(source + " is not a compact archive");
+            }
+            List<String> leaders = null;
+            writer.beginArray();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "version" -> {
+                        int version = reader.nextInt();
+                        if (version != ArchiveManager.FORMAT_VERSION) {
+                            throw new IOException("Unsupported archive version " + version);
+                        }
+                    }
+                    case "leaders" -> {
+                        leaders = new ArrayList<>();
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            leaders.add(reader.nextString());
+                        }
+                        reader.endArray();
+                    }
+                    case "entries" -> {
+                        if (leaders == null) {
+                            throw new IOException("Archive entries appear before the leader table in " + source);
+                        }
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            reader.beginArray();
+                            int leaderId = reader.nextInt();
+                            int levelNumber = reader.nextInt();
+                            int choice = reader.nextInt();
+                            boolean correct = reader.nextInt() != 0;
+                            long timestamp = reader.nextLong();
+                            reader.endArray();
+                            read++;
+                            if (leaderId < 0 || leaderId >= leaders.size()) {
+                                throw new IOException("Archive entry refers to unknown leader id " + leaderId);
+                            }
+                            String leader = leaders.get(leaderId);
+                            ArchiveManager.ResolvedEntry entry = ArchiveManager.resolve(leader, levelNumber, choice,
+                                    correct, timestamp, catalog.findLevel(leader, levelNumber));
+                            ArchiveManager.LegacyEntry legacy = new ArchiveManager.LegacyEntry();
+                            legacy.leader = entry.leader();
+                            legacy.levelNumber = entry.levelNumber();
+                            legacy.description = entry.description();
+                            legacy.historicalChoice = entry.historicalChoice();
+                            legacy.summary = entry.summary();
+                            legacy.playerChoice = entry.playerChoice();
+                            legacy.isCorrect = entry.correct();
+                            GSON.toJson(legacy, ArchiveManager.LegacyEntry.class, writer);
+                            written++;
+                            in.report("archive export", read, progress);
+                        }
+                        reader.endArray();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            writer.endArray();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        moveIntoPlace(temp, target);
+        long verified = 0;
+        try (CountingReader in = CountingReader.open(target)) {
+            JsonReader reader = in.json();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                reader.skipValue();
+                in.report("archive verify", ++verified, progress);
+            }
+            reader.endArray();
+        }
+        return new Report(read, written, read - written, verified, elapsedSince(start));
+    }
+
+    private static long countCompactEntries(Path file, Consumer<Progress> progress) throws IOException {
+        long count = 0;
+        try (CountingReader in = CountingReader.open(file)) {
+            JsonReader reader = in.json();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"entries".equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                    in.report("archive verify", ++count, progress);
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        }
+        return count;
+    }
+
+    private static void expectLegacy(JsonReader reader, Path source) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            throw new IOException(source + " is not an archive in the old format");
+        }
+    }
+
+    private static Path tempFor(Path target) {
+        Path absolute = target.toAbsolutePath();
+        return absolute.resolveSibling("." + absolute.getFileName() + ".tmp");
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long elapsedSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * A JSON reader over a file that knows how many bytes it has consumed, for progress reporting.
+     */
+    private static final class CountingReader implements AutoCloseable {
+        private final JsonReader json;
+        private final long totalBytes;
+        private long bytesRead;
+
+        private CountingReader(InputStream in, long totalBytes) {
+            this.totalBytes = totalBytes;
+            InputStream counting = new FilterInputStream(new BufferedInputStream(in)) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        bytesRead++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0) {
+                        bytesRead += n;
+                    }
+                    return n;
+                }
+            };
+            this.json = new JsonReader(new InputStreamReader(counting, StandardCharsets.UTF_8));
+        }
+
+        static CountingReader open(Path file) throws IOException {
+            return new CountingReader(Files.newInputStream(file), Files.size(file));
+        }
+
+        JsonReader json() {
+            return json;
+        }
+
+        void report(String phase, long records, Consumer<Progress> progress) {
+            if (progress != null && records % PROGRESS_INTERVAL == 0) {
+                progress.accept(new Progress(phase, records, bytesRead, totalBytes));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+}
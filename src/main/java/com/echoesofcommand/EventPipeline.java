@@ -0,0 +1,214 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decouples gameplay from persistence: {@link Game} publishes {@link GameEvent}s into a lock-free ring buffer,
+ * and each registered consumer processes them in batches on its own thread.
+ * <p>
+ * When the buffer is full the configured {@link Backpressure} policy decides whether the publisher waits,
+ * drops the event, or fails. {@link #close()} stops intake, waits for publishers already past the
+ * intake check, and returns only after every consumer has processed every accepted event.
+ */
+public class EventPipeline implements AutoCloseable {
+    private static final int MAX_BATCH = 1024;
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * What to do when a publisher finds the ring buffer full.
+     */
+    public enum Backpressure {
+        /** Wait until the slowest consumer frees a slot. */
+        BLOCK,
+        /** Discard the event and count it as dropped. */
+        DROP,
+        /** Throw an IllegalStateException to the publisher. */
+        FAIL
+    }
+
+    /**
+     * Processes a batch of consecutive events on the consumer's own thread.
+     */
+    public interface Consumer {
+        /**
+         * Handles a batch of events in publication order.
+         * @param batch The events, never empty.
+         */
+        void onBatch(List<GameEvent> batch);
+    }
+
+    private final EventRingBuffer ring;
+    private final Backpressure backpressure;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicBoolean accepting = new AtomicBoolean(true);
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger publishing = new AtomicInteger();
+
+    /**
+     * Creates the pipeline and starts one thread per consumer.
+     * @param capacity The ring buffer capacity.
+     * @param backpressure The policy applied when the buffer is full.
+     * @param consumers The named consumers; every consumer sees every event.
+     */
+    public EventPipeline(int capacity, Backpressure backpressure, List<Named> consumers) {
+        this.ring = new EventRingBuffer(capacity, consumers.size());
+        this.backpressure = backpressure;
+        for (int i = 0; i < consumers.size(); i++) {
+            int index = i;
+            Named named = consumers.get(i);
+            Thread worker = new Thread(() -> runConsumer(index, named.consumer()), "events-" + named.name());
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * A consumer with the name used for its thread.
+     * @param name The consumer's name.
+     * @param consumer The consumer.
+     */
+    public record Named(String name, Consumer consumer) {
+    }
+
+    /**
+     * Publishes an event, applying the backpressure policy if the buffer is full.
+     * @param event The event.
+     * @return True if the event was accepted, false if it was dropped.
+     * @throws IllegalStateException If the pipeline is closed, or the buffer is full under {@link Backpressure#FAIL}.
+     */
+    public boolean publish(GameEvent event) {
+        // Registering before the intake check means close() either sees this publisher or rejects it.
+        publishing.incrementAndGet();
+        try {
+            if (!accepting.get()) {
+                throw new IllegalStateException("Event pipeline is closed");
+            }
+            return claimAndPublish(event);
+        } finally {
+            publishing.decrementAndGet();
+        }
+    }
+
+    private boolean claimAndPublish(GameEvent event) {
+        long sequence = ring.tryClaim();
+        int attempts = 0;
+        while (sequence < 0) {
+            switch (backpressure) {
+                case DROP -> {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                case FAIL -> throw new IllegalStateException("Event pipeline is full (" + ring.capacity() + " events)");
+                case BLOCK -> {
+                    idle(attempts++);
+                    sequence = ring.tryClaim();
+                }
+            }
+        }
+        ring.publish(sequence, event);
+        return true;
+    }
+
+    /**
+     * Waits until every consumer has processed every event published so far.
+     */
+    public void awaitDrained() {
+        long target = ring.claimedSequence();
+        for (int i = 0; i < workers.size(); i++) {
+            while (ring.consumerSequence(i) < target && workers.get(i).isAlive()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of events accepted but not yet processed by the slowest consumer.
+     * @return The backlog size.
+     */
+    public long backlog() {
+        return ring.backlog();
+    }
+
+    /**
+     * Gets the number of events discarded under {@link Backpressure#DROP}.
+     * @return The dropped count.
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops accepting events, waits for publishes already in progress, drains everything accepted, and
+     * stops the consumer threads. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (!accepting.compareAndSet(true, false)) {
+            return;
+        }
+        int attempts = 0;
+        while (publishing.get() > 0) {
+            idle(attempts++);
+        }
+        awaitDrained();
+        running.set(false);
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void runConsumer(int index, Consumer consumer) {
+        List<GameEvent> batch = new ArrayList<>(MAX_BATCH);
+        long next = ring.consumerSequence(index) + 1;
+        int idleRounds = 0;
+        while (running.get() || ring.get(next) != null) {
+            GameEvent event;
+            while (batch.size() < MAX_BATCH && (event = ring.get(next)) != null) {
+                batch.add(event);
+                next++;
+            }
+            if (batch.isEmpty()) {
+                idle(idleRounds++);
+                continue;
+            }
+            idleRounds = 0;
+            try {
+                consumer.onBatch(batch);
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Event consumer " + Thread.currentThread().getName() + " failed: " + e.getMessage());
+            }
+            batch.clear();
+            ring.advance(index, next - 1);
+        }
+    }
+
+    /**
+     * Backs off progressively: spin briefly, then yield, then park, so an idle or blocked thread
+     * neither burns a core nor pays a context switch on every short wait.
+     */
+    private static void idle(int round) {
+        if (round < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (round < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+}
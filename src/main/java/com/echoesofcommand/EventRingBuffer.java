@@ -0,0 +1,128 @@
+package com.echoesofcommand;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free, multi-producer ring buffer broadcasting every event to a fixed set of consumers.
+ * <p>
+ * Producers claim a sequence with a CAS on the shared cursor, write the slot, and then publish it by
+ * storing the sequence in the slot's published marker. Each consumer advances its own sequence, and a
+ * producer may only claim a slot once every consumer has moved past the event that used it last.
+ */
+public class EventRingBuffer {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<GameEvent> slots;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong[] consumerSequences;
+
+    /**
+     * Creates a ring buffer.
+     * @param capacity The number of slots; rounded up to a power of two.
+     * @param consumers The number of consumers that must see every event.
+     */
+    public EventRingBuffer(int capacity, int consumers) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            published.set(i, -1);
+        }
+        this.consumerSequences = new AtomicLong[consumers];
+        for (int i = 0; i < consumers; i++) {
+            consumerSequences[i] = new AtomicLong(-1);
+        }
+    }
+
+    /**
+     * Tries to claim the next sequence without waiting.
+     * @return The claimed sequence, or -1 if the buffer is full.
+     */
+    public long tryClaim() {
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (next - capacity > minConsumerSequence()) {
+                return -1;
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Stores an event in a claimed slot and makes it visible to consumers.
+     * @param sequence The sequence returned by {@link #tryClaim()}.
+     * @param event The event.
+     */
+    public void publish(long sequence, GameEvent event) {
+        int index = (int) (sequence & mask);
+        slots.set(index, event);
+        published.set(index, sequence);
+    }
+
+    /**
+     * Reads the event at a sequence if it has been published.
+     * @param sequence The sequence to read.
+     * @return The event, or null if the producer has not published it yet.
+     */
+    public GameEvent get(long sequence) {
+        int index = (int) (sequence & mask);
+        return published.get(index) == sequence ? slots.get(index) : null;
+    }
+
+    /**
+     * Gets the sequence a consumer has fully processed.
+     * @param consumer The consumer's index.
+     * @return The last processed sequence.
+     */
+    public long consumerSequence(int consumer) {
+        return consumerSequences[consumer].get();
+    }
+
+    /**
+     * Marks events up to and including the given sequence as processed by a consumer.
+     * @param consumer The consumer's index.
+     * @param sequence The last processed sequence.
+     */
+    public void advance(int consumer, long sequence) {
+        consumerSequences[consumer].set(sequence);
+    }
+
+    /**
+     * Gets the highest claimed sequence.
+     * @return The claimed cursor.
+     */
+    public long claimedSequence() {
+        return claimed.get();
+    }
+
+    /**
+     * Gets the number of events claimed but not yet processed by the slowest consumer.
+     * @return The backlog size.
+     */
+    public long backlog() {
+        return claimed.get() - minConsumerSequence();
+    }
+
+    /**
+     * Gets the number of slots.
+     * @return The capacity.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    private long minConsumerSequence() {
+        long min = Long.MAX_VALUE;
+        for (AtomicLong sequence : consumerSequences) {
+            min = Math.min(min, sequence.get());
+        }
+        return min;
+    }
+}
@@ -0,0 +1,110 @@
+package com.echoesofcommand;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Custom JDK Flight Recorder events for gameplay, persistence, content loading and archive search.
+ * <p>
+ * The events are disabled-cheap: when no recording is running, {@code begin()}/{@code commit()} are
+ * effectively free. Record with {@code -XX:StartFlightRecording=filename=eoc.jfr} and inspect the
+ * {@code Echoes of Command} category in JDK Mission Control, or with {@code jfr print --events
+ * com.echoesofcommand.LevelAnswer eoc.jfr}.
+ */
+public final class FlightEvents {
+    private static final String CATEGORY = "Echoes of Command";
+
+    private FlightEvents() {
+    }
+
+    /**
+     * Spans from a level being shown to the player's answer; the event duration is the think time.
+     */
+    @Name("com.echoesofcommand.LevelAnswer")
+    @Label("Level Answer")
+    @Category({CATEGORY, "Gameplay"})
+    @Description("A level from display to answer; the duration is the player's think time")
+    @StackTrace(false)
+    public static class LevelAnswer extends Event {
+        @Label("User")
+        public String user;
+        @Label("Leader")
+        public String leader;
+        @Label("Level")
+        public int level;
+        @Label("Choice")
+        @Description("The choice entered, 1-based as shown, or 0 when skipped")
+        public int choice;
+        @Label("Correct")
+        public boolean correct;
+    }
+
+    /**
+     * A write of the player records and windowed leaderboards.
+     */
+    @Name("com.echoesofcommand.PlayerSave")
+    @Label("Player Save")
+    @Category({CATEGORY, "Persistence"})
+    @StackTrace(false)
+    public static class PlayerSave extends Event {
+        @Label("Records")
+        public int records;
+        @Label("Bytes Written")
+        @DataAmount
+        public long bytesWritten;
+    }
+
+    /**
+     * A write of the archive.
+     */
+    @Name("com.echoesofcommand.ArchiveSave")
+    @Label("Archive Save")
+    @Category({CATEGORY, "Persistence"})
+    @StackTrace(false)
+    public static class ArchiveSave extends Event {
+        @Label("Entries")
+        public int entries;
+        @Label("Bytes Written")
+        @DataAmount
+        public long bytesWritten;
+    }
+
+    /**
+     * A load of content, either the full catalog, the leader index, or one materialized leader.
+     */
+    @Name("com.echoesofcommand.ContentLoad")
+    @Label("Content Load")
+    @Category({CATEGORY, "Content"})
+    @StackTrace(false)
+    public static class ContentLoad extends Event {
+        @Label("Kind")
+        @Description("catalog, index or leader")
+        public String kind;
+        @Label("Leader")
+        @Description("The materialized leader, or null for whole-content loads")
+        public String leader;
+        @Label("Leaders")
+        public int leaders;
+    }
+
+    /**
+     * An archive keyword search.
+     */
+    @Name("com.echoesofcommand.ArchiveSearch")
+    @Label("Archive Search")
+    @Category({CATEGORY, "Archive"})
+    @StackTrace(false)
+    public static class ArchiveSearch extends Event {
+        @Label("Keyword")
+        public String keyword;
+        @Label("Scanned")
+        public int scanned;
+        @Label("Hits")
+        public int hits;
+    }
+}
@@ -0,0 +1,53 @@
+package com.echoesofcommand;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grow-only counter CRDT: each node only increments its own slot, and merging takes the per-node maximum,
+ * so replicas converge regardless of the order or number of times states are exchanged.
+ */
+public class GCounter {
+    private Map<String, Long> counts = new HashMap<>();
+
+    /**
+     * Adds a non-negative amount to the given node's slot.
+     * @param node The node performing the increment.
+     * @param delta The amount to add.
+     * @throws IllegalArgumentException If the amount is negative.
+     */
+    public void increment(String node, long delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("GCounter can only grow, got " + delta);
+        }
+        if (delta == 0) {
+            return;
+        }
+        counts.merge(node, delta, Long::sum);
+    }
+
+    /**
+     * Gets the counter value summed over all nodes.
+     * @return The total.
+     */
+    public long value() {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Merges another replica into this one by taking the per-node maximum.
+     * @param other The other replica.
+     */
+    public void merge(GCounter other) {
+        if (other == null || other.counts == null) {
+            return;
+        }
+        for (Map.Entry<String, Long> entry : other.counts.entrySet()) {
+            counts.merge(entry.getKey(), entry.getValue(), Math::max);
+        }
+    }
+}
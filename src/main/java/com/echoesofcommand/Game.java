@@ -3,6 +3,7 @@ package com.echoesofcommand;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Manages the game logic, including gameplay loop and scoring.
@@ -11,11 +12,13 @@ public class Game {
     private final List<Leader> leaders;
     private final GameUI ui;
     private final PlayerRecord player;
-    private final ArchiveManager archive;
+    private final EventPipeline events;
     private final boolean sequential;
     private final boolean randomized;
+    private final Random random;
     private int score;
-    private long startTime;
+    private long startNanos;
+    private long elapsedMillis;
     private int levelsPlayed;
     private int correctChoices;
 
@@ -24,25 +27,42 @@ public class Game {
      * @param leaders The list of leaders to play.
      * @param ui The user interface.
      * @param player The player's record.
-     * @param archive The archive manager.
+     * @param events The pipeline that receives answers and the session result for persistence.
      * @param sequential Whether to play in sequential mode.
      * @param randomized Whether to play in randomized mode.
      */
-    public Game(List<Leader> leaders, GameUI ui, PlayerRecord player, ArchiveManager archive, boolean sequential, boolean randomized) {
+    public Game(List<Leader> leaders, GameUI ui, PlayerRecord player, EventPipeline events, boolean sequential, boolean randomized) {
+        this(leaders, ui, player, events, sequential, randomized, new Random());
+    }
+
+    /**
+     * Creates a new game instance whose level and choice order is driven by the given random generator.
+     * @param leaders The list of leaders to play.
+     * @param ui The user interface.
+     * @param player The player's record.
+     * @param events The pipeline that receives answers and the session result for persistence.
+     * @param sequential Whether to play in sequential mode.
+     * @param randomized Whether to play in randomized mode.
+     * @param random The random generator used in randomized mode.
+     */
+    public Game(List<Leader> leaders, GameUI ui, PlayerRecord player, EventPipeline events, boolean sequential, boolean randomized, Random random) {
+        this.random = random;
         this.leaders = leaders;
         this.ui = ui;
         this.player = player;
-        this.archive = archive;
+        this.events = events;
         this.sequential = sequential;
         this.randomized = randomized;
     }
 
     /**
      * Starts the game, running through all levels for the selected leaders.
+     * Archiving and statistics are published as events and applied off the play path.
      */
     public void start() {
         score = 0;
-        startTime = System.currentTimeMillis();
+        long startedAt = System.currentTimeMillis();
+        startNanos = System.nanoTime();
         levelsPlayed = 0;
         correctChoices = 0;
 
@@ -52,7 +72,7 @@ public class Game {
         // Collect all levels
         for (Leader leader : leaders) {
             for (Level level : leader.getLevels()) {
-                // Set the leader name for each level
+                // Set the leader name for each level; getChoices() returns a copy, so shuffling never touches the shared catalog
                 level = new Level(level.getNumber(), level.getDescription(), level.getChoices(), level.getSummary(), leader.getName());
                 levelsToPlay.add(level);
             }
@@ -63,9 +83,14 @@ public class Game {
 
         // Randomize levels if in randomized mode
         if (randomized) {
-            Collections.shuffle(levelsToPlay);
+            Collections.shuffle(levelsToPlay, random);
         }
 
+        String[] levelLeaders = new String[totalLevels];
+        int[] levelNumbers = new int[totalLevels];
+        int[] thinkMillis = new int[totalLevels];
+        byte[] outcomes = new byte[totalLevels];
+
         // Play through levels
         for (int i = 0; i < levelsToPlay.size(); i++) {
             Level level = levelsToPlay.get(i);
@@ -77,34 +102,72 @@ public class Game {
 
             // Randomize choices for randomized mode
             if (randomized) {
-                level.randomizeChoices();
+                level.randomizeChoices(random);
             }
 
+            FlightEvents.LevelAnswer answerEvent = new FlightEvents.LevelAnswer();
+            answerEvent.begin();
+            long shownNanos = System.nanoTime();
             ui.displayLevel(level);
             int choice = ui.getPlayerChoice();
+            thinkMillis[i] = (int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - shownNanos) / 1_000_000);
+            answerEvent.end();
+            levelLeaders[i] = level.getLeaderName();
+            levelNumbers[i] = level.getNumber();
             levelsPlayed++;
-            String playerChoiceText = "";
             boolean isCorrect = false;
             if (choice == 1 || choice == 2) {
-                playerChoiceText = level.getChoices().get(choice - 1).getText();
-                isCorrect = level.getChoices().get(choice - 1).isHistorical();
+                Choice chosen = level.getChoices().get(choice - 1);
+                isCorrect = chosen.isHistorical();
                 if (isCorrect) {
                     score++;
                     correctChoices++;
                 }
+                outcomes[i] = isCorrect ? SessionHistory.CORRECT : SessionHistory.INCORRECT;
                 ui.displayResult(isCorrect, level.getSummary());
+                events.publish(new GameEvent.LevelAnswered(player, level, level.contentIndexOf(chosen), isCorrect, System.currentTimeMillis()));
             } else {
+                outcomes[i] = SessionHistory.SKIPPED;
                 ui.displayTimeoutSkip();
+                events.publish(new GameEvent.LevelSkipped(player, level, System.currentTimeMillis()));
+            }
+            if (answerEvent.shouldCommit()) {
+                answerEvent.user = player.getUsername();
+                answerEvent.leader = level.getLeaderName();
+                answerEvent.level = level.getNumber();
+                answerEvent.choice = choice == 1 || choice == 2 ? choice : 0;
+                answerEvent.correct = isCorrect;
+                answerEvent.commit();
             }
-            archive.addEntry(level.getLeaderName(), level, playerChoiceText, isCorrect);
-            archive.saveToJson();
             ui.showProgress(score, totalLevels);
         }
 
-        long elapsed = System.currentTimeMillis() - startTime;
+        long elapsed = (System.nanoTime() - startNanos) / 1_000_000;
+        elapsedMillis = elapsed;
         ui.displayEndOfRound(score, totalLevels, elapsed);
-        player.recordSession(score, elapsed, sequential);
-        player.updateStatistics(levelsPlayed, correctChoices, elapsed);
+        String singleLeader = !sequential && !randomized && leaders.size() == 1 ? leaders.get(0).getName() : null;
+        byte mode = randomized ? SessionHistory.MODE_RANDOMIZED
+                : sequential ? SessionHistory.MODE_SEQUENTIAL : SessionHistory.MODE_SINGLE;
+        SessionHistory.Session history = new SessionHistory.Session(startedAt, score, elapsed, mode,
+                levelLeaders, levelNumbers, thinkMillis, outcomes);
+        events.publish(new GameEvent.SessionCompleted(player, score, levelsPlayed, correctChoices, elapsed, sequential,
+                singleLeader, history));
+    }
+
+    /**
+     * Gets the score of the last completed session.
+     * @return The score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the duration of the last completed session.
+     * @return The elapsed time in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
     }
 
     /**
@@ -0,0 +1,50 @@
+package com.echoesofcommand;
+
+/**
+ * Domain events published by {@link Game} and processed off the play path by {@link EventPipeline} consumers.
+ */
+public sealed interface GameEvent permits GameEvent.LevelAnswered, GameEvent.LevelSkipped, GameEvent.SessionCompleted {
+
+    /**
+     * Gets the player the event belongs to.
+     * @return The player's record.
+     */
+    PlayerRecord player();
+
+    /**
+     * A level was answered with one of its choices.
+     * @param player The player's record.
+     * @param level The level as shown, with its leader name set.
+     * @param choiceIndex The chosen option's 0-based index in content order.
+     * @param correct Whether the choice was the historical one.
+     * @param timestamp The answer time in milliseconds since epoch.
+     */
+    record LevelAnswered(PlayerRecord player, Level level, int choiceIndex, boolean correct, long timestamp)
+            implements GameEvent {
+    }
+
+    /**
+     * A level was skipped without a valid answer.
+     * @param player The player's record.
+     * @param level The level as shown, with its leader name set.
+     * @param timestamp The skip time in milliseconds since epoch.
+     */
+    record LevelSkipped(PlayerRecord player, Level level, long timestamp) implements GameEvent {
+    }
+
+    /**
+     * A session finished.
+     * @param player The player's record.
+     * @param score The final score.
+     * @param levelsPlayed The number of levels played.
+     * @param correctChoices The number of correct choices.
+     * @param elapsedMillis The session duration in milliseconds.
+     * @param sequential True if the session was played in sequential mode.
+     * @param singleLeader The leader's name in single-leader mode, or null otherwise.
+     * @param history The session with its per-level timings, for the player's session history.
+     */
+    record SessionCompleted(PlayerRecord player, int score, int levelsPlayed, int correctChoices,
+                            long elapsedMillis, boolean sequential, String singleLeader,
+                            SessionHistory.Session history) implements GameEvent {
+    }
+}
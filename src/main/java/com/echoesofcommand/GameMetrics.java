@@ -0,0 +1,80 @@
+package com.echoesofcommand;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts gameplay events as they flow through the event pipeline.
+ */
+public class GameMetrics implements EventPipeline.Consumer {
+    private final AtomicLong levelsAnswered = new AtomicLong();
+    private final AtomicLong correctAnswers = new AtomicLong();
+    private final AtomicLong levelsSkipped = new AtomicLong();
+    private final AtomicLong sessionsCompleted = new AtomicLong();
+
+    /**
+     * The counts at one moment.
+     * @param levelsAnswered The number of answered levels.
+     * @param correctAnswers The number of correctly answered levels.
+     * @param levelsSkipped The number of skipped levels.
+     * @param sessionsCompleted The number of completed sessions.
+     */
+    public record Counts(long levelsAnswered, long correctAnswers, long levelsSkipped, long sessionsCompleted) {
+    }
+
+    @Override
+    public void onBatch(List<GameEvent> batch) {
+        for (GameEvent event : batch) {
+            if (event instanceof GameEvent.LevelAnswered answered) {
+                levelsAnswered.incrementAndGet();
+                if (answered.correct()) {
+                    correctAnswers.incrementAndGet();
+                }
+            } else if (event instanceof GameEvent.LevelSkipped) {
+                levelsSkipped.incrementAndGet();
+            } else if (event instanceof GameEvent.SessionCompleted) {
+                sessionsCompleted.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Gets all counts together.
+     * @return The counts.
+     */
+    public Counts counts() {
+        return new Counts(levelsAnswered.get(), correctAnswers.get(), levelsSkipped.get(), sessionsCompleted.get());
+    }
+
+    /**
+     * Gets the number of answered levels.
+     * @return The count.
+     */
+    public long getLevelsAnswered() {
+        return levelsAnswered.get();
+    }
+
+    /**
+     * Gets the number of correctly answered levels.
+     * @return The count.
+     */
+    public long getCorrectAnswers() {
+        return correctAnswers.get();
+    }
+
+    /**
+     * Gets the number of skipped levels.
+     * @return The count.
+     */
+    public long getLevelsSkipped() {
+        return levelsSkipped.get();
+    }
+
+    /**
+     * Gets the number of completed sessions.
+     * @return The count.
+     */
+    public long getSessionsCompleted() {
+        return sessionsCompleted.get();
+    }
+}
@@ -24,16 +24,17 @@ public interface GameUI {
 
     /**
      * Prompts the user to select a play mode.
-     * @return 1 for single-leader mode, 2 for sequential mode, 3 for randomized mode, 4 to quit.
+     * @return 1 for single-leader mode, 2 for sequential mode, 3 for randomized mode,
+     *         4 to search the history catalog, 5 to quit.
      */
     int promptPlayMode();
 
     /**
-     * Allows the user to select a leader.
-     * @param leaders The list of available leaders.
-     * @return The selected leader.
+     * Allows the user to select a leader by name, without the leaders' levels being loaded.
+     * @param leaders The index entries of the available leaders.
+     * @return The entry of the selected leader.
      */
-    Leader selectLeader(List<Leader> leaders);
+    ContentIndex.Entry selectLeader(List<ContentIndex.Entry> leaders);
 
     /**
      * Displays the current leader in sequential mode.
@@ -60,6 +61,11 @@ public interface GameUI {
      */
     void displayTimeoutSkip();
 
+    /**
+     * Tells the player that no session could be started because the server is at capacity.
+     */
+    void displayServerBusy();
+
     /**
      * Displays the result of a player's choice.
      * @param correct True if the choice was correct.
@@ -94,6 +100,19 @@ public interface GameUI {
      */
     String promptSearchKeyword();
 
+    /**
+     * Asks whether to show the next page of archive search results.
+     * @return True to show more results, false to stop.
+     */
+    boolean promptMoreResults();
+
+    /**
+     * Displays ranked results of a history catalog search.
+     * @param query The query that was searched.
+     * @param hits The ranked hits, best first.
+     */
+    void displayContentSearchResults(String query, List<ContentSearchIndex.Hit> hits);
+
     /**
      * Prompts the user for a post-round option.
      * @return 1 to play again, 2 to switch user, 3 to view stats, 4 to quit.
@@ -106,6 +125,28 @@ public interface GameUI {
      */
     void displayLeaderboard(List<PlayerRecord> list);
 
+    /**
+     * Displays the single-leader leaderboard for one leader.
+     * @param leader The leader's name.
+     * @param standings The standings, best first.
+     */
+    void displayLeaderLeaderboard(String leader, List<Standing> standings);
+
+    /**
+     * Displays a rolling time-window leaderboard.
+     * @param window The time window shown.
+     * @param standings The standings, best first.
+     */
+    void displayWindowedLeaderboard(LeaderboardWindow window, List<Standing> standings);
+
+    /**
+     * Displays the live standings of a tournament between levels.
+     * @param top The leading standings, best first; the time is the total think time.
+     * @param rank The player's own rank, starting at 1.
+     * @param participants The number of participants.
+     */
+    void displayTournamentStandings(List<Standing> top, int rank, int participants);
+
     /**
      * Displays a goodbye message.
      */
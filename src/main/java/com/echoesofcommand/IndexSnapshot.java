@@ -0,0 +1,167 @@
+package com.echoesofcommand;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the indexes derived from the player store: the username index, the per-leader
+ * rankings and the all-time ranking, plus the store journal generation to replay from.
+ * <p>
+ * The file starts with a magic number and a format version, and ends with a CRC-32 of everything
+ * before it. A missing file, a different version, a bad checksum, a truncated file or a count larger
+ * than the file could hold all read as no snapshot, so the caller falls back to rebuilding from the
+ * store. Counts are checked before anything is allocated, since the checksum is only known at the end. Files are written to a temporary
+ * file and atomically moved into place, so a crash while writing leaves the previous snapshot intact.
+ * @param replayFrom The first store journal generation that may hold changes missing from the snapshot.
+ * @param usernames Every indexed username, in index order.
+ * @param leaderRankings Each leader's ranked standings, best first.
+ * @param allTime The all-time ranked standings, best first.
+ */
+public record IndexSnapshot(long replayFrom, List<String> usernames,
+                            Map<String, List<Standing>> leaderRankings,
+                            List<Standing> allTime) {
+    private static final int MAGIC = 0x454F4349;
+    /** Bumped whenever the layout changes; older snapshots are then ignored and rebuilt. */
+    static final int FORMAT_VERSION = 1;
+    /** Smallest encodings: a string is its 2-byte length, a standing adds a 4-byte score and an 8-byte time. */
+    private static final int MIN_USERNAME_BYTES = 2;
+    private static final int MIN_LEADER_BYTES = 2 + 4;
+    private static final int MIN_STANDING_BYTES = 2 + 4 + 8;
+
+    /**
+     * Writes the snapshot, replacing any previous one.
+     * @param file The snapshot file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        Path temp = file.resolveSibling("." + file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(temp), crc)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(replayFrom);
+            out.writeInt(usernames.size());
+            for (String username : usernames) {
+                out.writeUTF(username);
+            }
+            out.writeInt(leaderRankings.size());
+            for (Map.Entry<String, List<Standing>> entry : leaderRankings.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeStandings(out, entry.getValue());
+            }
+            writeStandings(out, allTime);
+            // Flush so the checksum covers everything above before it is taken.
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a snapshot.
+     * @param file The snapshot file.
+     * @return The snapshot, or null if there is none or it cannot be used.
+     */
+    public static IndexSnapshot read(Path file) {
+        CRC32 crc = new CRC32();
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring " + file + ": " + e.getMessage());
+            return null;
+        }
+        // The checksum sits outside the buffer so it only covers bytes actually consumed.
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC) {
+                System.err.println("Warning: Ignoring " + file + ": not an index snapshot");
+                return null;
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                System.err.println("Warning: Ignoring " + file + ": snapshot version " + version + " is not " + FORMAT_VERSION);
+                return null;
+            }
+            long replayFrom = in.readLong();
+            int count = readCount(in, size, MIN_USERNAME_BYTES);
+            List<String> usernames = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                usernames.add(in.readUTF());
+            }
+            int leaders = readCount(in, size, MIN_LEADER_BYTES);
+            Map<String, List<Standing>> leaderRankings = new LinkedHashMap<>();
+            for (int i = 0; i < leaders; i++) {
+                leaderRankings.put(in.readUTF(), readStandings(in, size));
+            }
+            List<Standing> allTime = readStandings(in, size);
+            long expected = crc.getValue();
+            long stored = in.readLong();
+            if (stored != expected) {
+                System.err.println("Warning: Ignoring " + file + ": checksum mismatch");
+                return null;
+            }
+            return new IndexSnapshot(replayFrom, usernames, leaderRankings, allTime);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (EOFException e) {
+            System.err.println("Warning: Ignoring " + file + ": snapshot is truncated");
+            return null;
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeStandings(DataOutputStream out, List<Standing> standings) throws IOException {
+        out.writeInt(standings.size());
+        for (Standing standing : standings) {
+            out.writeUTF(standing.username());
+            out.writeInt(standing.score());
+            out.writeLong(standing.timeMillis());
+        }
+    }
+
+    private static List<Standing> readStandings(DataInputStream in, long size) throws IOException {
+        int count = readCount(in, size, MIN_STANDING_BYTES);
+        List<Standing> standings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            standings.add(new Standing(in.readUTF(), in.readInt(), in.readLong()));
+        }
+        return standings;
+    }
+
+    /**
+     * Reads an element count, rejecting one that is negative or needs more bytes than the whole file has.
+     */
+    private static int readCount(DataInputStream in, long size, int minBytes) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || (long) count * minBytes > size) {
+            throw new IOException("snapshot is corrupt, bad count " + count);
+        }
+        return count;
+    }
+}
@@ -3,15 +3,36 @@ package com.echoesofcommand;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.reflect.Type;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 /**
  * Loads game data from JSON files.
  */
 public class JsonLoader {
+    private static final Type LEADER_LIST_TYPE = new TypeToken<List<Leader>>(){}.getType();
+
     /**
      * Loads leaders from a JSON resource file.
      * @param resourcePath The path to the JSON file.
@@ -35,4 +56,174 @@ public class JsonLoader {
             throw new IllegalStateException("Error loading " + resourcePath + ": " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Loads the base resource plus every content pack found on the classpath and in an optional
+     * directory, parsing the packs in parallel and merging them into one list of leaders.
+     * <p>
+     * A leader defined identically in several packs is kept once. A leader defined differently in
+     * several packs is a conflict and fails the load, naming every conflicting pack.
+     * @param baseResource The classpath path of the base content file.
+     * @param packsResourceDir The classpath directory holding additional {@code *.json} packs.
+     * @param packsDirectory An optional filesystem directory holding {@code *.json} packs, or null.
+     * @return The merged leaders, in pack discovery order.
+     * @throws IllegalArgumentException If neither the base resource nor any pack is found.
+     * @throws IllegalStateException If a pack cannot be parsed, no leaders are found, or leaders conflict.
+     */
+    public List<Leader> loadAllPacks(String baseResource, String packsResourceDir, Path packsDirectory) {
+        List<URL> packs = discoverPacks(baseResource, packsResourceDir, packsDirectory);
+        if (packs.isEmpty()) {
+            throw new IllegalArgumentException("Resource not found: " + baseResource);
+        }
+        List<List<Leader>> parsed = ForkJoinPool.commonPool().invoke(new ParsePacksTask(packs, 0, packs.size()));
+        return merge(packs, parsed);
+    }
+
+    /**
+     * Finds the base resource and all pack files, in a stable order.
+     * @param baseResource The classpath path of the base content file.
+     * @param packsResourceDir The classpath directory holding additional packs.
+     * @param packsDirectory An optional filesystem directory holding packs, or null.
+     * @return The URLs of all content files found.
+     */
+    List<URL> discoverPacks(String baseResource, String packsResourceDir, Path packsDirectory) {
+        ClassLoader classLoader = JsonLoader.class.getClassLoader();
+        List<URL> packs = new ArrayList<>();
+        URL base = classLoader.getResource(baseResource);
+        if (base != null) {
+            packs.add(base);
+        }
+        try {
+            Enumeration<URL> dirs = classLoader.getResources(packsResourceDir);
+            for (URL dir : Collections.list(dirs)) {
+                if ("file".equals(dir.getProtocol())) {
+                    packs.addAll(listJsonFiles(Paths.get(dir.toURI())));
+                } else if ("jar".equals(dir.getProtocol())) {
+                    packs.addAll(listJarEntries(dir, packsResourceDir));
+                }
+            }
+            if (packsDirectory != null && Files.isDirectory(packsDirectory)) {
+                packs.addAll(listJsonFiles(packsDirectory));
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Error discovering content packs: " + e.getMessage(), e);
+        }
+        return packs;
+    }
+
+    private static List<URL> listJsonFiles(Path dir) throws IOException {
+        List<URL> urls = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".json")).sorted().toList()) {
+                urls.add(file.toUri().toURL());
+            }
+        }
+        return urls;
+    }
+
+    private static List<URL> listJarEntries(URL dir, String packsResourceDir) throws IOException {
+        String prefix = packsResourceDir.endsWith("/") ? packsResourceDir : packsResourceDir + "/";
+        List<URL> urls = new ArrayList<>();
+        JarURLConnection connection = (JarURLConnection) dir.openConnection();
+        connection.setUseCaches(false);
+        try (JarFile jar = connection.getJarFile()) {
+            List<String> names = new ArrayList<>();
+            for (JarEntry entry : Collections.list(jar.entries())) {
+                String name = entry.getName();
+                if (name.startsWith(prefix) && name.endsWith(".json") && name.indexOf('/', prefix.length()) < 0) {
+                    names.add(name);
+                }
+            }
+            Collections.sort(names);
+            for (String name : names) {
+                urls.add(JsonLoader.class.getClassLoader().getResource(name));
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Parses one content file.
+     * @param url The location of the pack.
+     * @return The leaders in the pack.
+     * @throws IllegalStateException If the pack is invalid or empty.
+     */
+    static List<Leader> parsePack(URL url) {
+        try (InputStream in = url.openStream();
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            List<Leader> leaders = new Gson().fromJson(reader, LEADER_LIST_TYPE);
+            if (leaders == null || leaders.isEmpty()) {
+                throw new IllegalStateException("No leaders found in the JSON file.");
+            }
+            return leaders;
+        } catch (Exception e) {
+            throw new IllegalStateException("Error loading " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Merges parsed packs, dropping identical duplicates and failing on conflicting definitions.
+     */
+    private static List<Leader> merge(List<URL> packs, List<List<Leader>> parsed) {
+        Gson gson = new Gson();
+        Map<String, Leader> merged = new LinkedHashMap<>();
+        Map<String, String> fingerprints = new LinkedHashMap<>();
+        Map<String, URL> origins = new LinkedHashMap<>();
+        List<String> conflicts = new ArrayList<>();
+        int duplicates = 0;
+        for (int i = 0; i < packs.size(); i++) {
+            for (Leader leader : parsed.get(i)) {
+                String fingerprint = gson.toJson(leader);
+                String existing = fingerprints.putIfAbsent(leader.getName(), fingerprint);
+                if (existing == null) {
+                    merged.put(leader.getName(), leader);
+                    origins.put(leader.getName(), packs.get(i));
+                } else if (existing.equals(fingerprint)) {
+                    duplicates++;
+                } else {
+                    conflicts.add(leader.getName() + " (" + origins.get(leader.getName()) + " vs " + packs.get(i) + ")");
+                }
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalStateException("Conflicting leader definitions: " + String.join(", ", conflicts));
+        }
+        if (duplicates > 0) {
+            System.err.println("Warning: Ignored " + duplicates + " duplicate leader definition(s) across content packs.");
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Splits the pack list in halves until one pack remains, parsing leaves on the fork-join pool.
+     * Never serialized, despite extending a serializable class.
+     */
+    @SuppressWarnings("serial")
+    private static class ParsePacksTask extends RecursiveTask<List<List<Leader>>> {
+        private final List<URL> packs;
+        private final int from;
+        private final int to;
+
+        ParsePacksTask(List<URL> packs, int from, int to) {
+            this.packs = packs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<List<Leader>> compute() {
+            if (to - from == 1) {
+                List<List<Leader>> single = new ArrayList<>(1);
+                single.add(parsePack(packs.get(from)));
+                return single;
+            }
+            int mid = (from + to) >>> 1;
+            ParsePacksTask left = new ParsePacksTask(packs, from, mid);
+            left.fork();
+            List<List<Leader>> right = new ParsePacksTask(packs, mid, to).compute();
+            List<List<Leader>> result = left.join();
+            result.addAll(right);
+            return result;
+        }
+    }
+}
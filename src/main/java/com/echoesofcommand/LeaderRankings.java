@@ -0,0 +1,102 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Per-leader ranked indexes of single-leader best scores.
+ * <p>
+ * Each leader owns a sorted set of standings plus a username lookup, so an improved best replaces
+ * exactly one entry in O(log n) and "top players for a leader" is a direct walk of the head of one set.
+ * <p>
+ * Rankings can be capped to a fixed depth per leader. Because a player's best only ever improves,
+ * a player who falls off a capped ranking can only come back by offering a better result, so the
+ * capped head stays exact without remembering the players below it.
+ */
+public final class LeaderRankings {
+    private static final Comparator<Standing> ORDER =
+            Comparator.comparingInt(Standing::score).reversed()
+                    .thenComparingLong(Standing::timeMillis)
+                    .thenComparing(Standing::username);
+
+    private final Map<String, TreeSet<Standing>> ranked = new TreeMap<>();
+    private final Map<String, Map<String, Standing>> byUser = new HashMap<>();
+    private final int maxPerLeader;
+
+    /**
+     * Creates empty rankings that keep at most the given number of players per leader.
+     * @param maxPerLeader The ranking depth per leader.
+     */
+    public LeaderRankings(int maxPerLeader) {
+        this.maxPerLeader = maxPerLeader;
+    }
+
+    /**
+     * Builds the rankings from the per-leader bests stored in the given records.
+     * @param records The player records.
+     */
+    public LeaderRankings(Collection<PlayerRecord> records) {
+        this(Integer.MAX_VALUE);
+        for (PlayerRecord record : records) {
+            for (String leader : record.getPlayedLeaders()) {
+                update(leader, record.getUsername(), record.getBestLeaderScore(leader), record.getBestLeaderTimeMillis(leader));
+            }
+        }
+    }
+
+    /**
+     * Replaces a player's standing for a leader with their new best.
+     * @param leader The leader's name.
+     * @param username The player's username.
+     * @param score The player's best score for the leader.
+     * @param timeMillis The time of that best score in milliseconds.
+     */
+    public synchronized void update(String leader, String username, int score, long timeMillis) {
+        Standing standing = new Standing(username, score, timeMillis);
+        Standing previous = byUser.computeIfAbsent(leader, k -> new HashMap<>()).put(username, standing);
+        TreeSet<Standing> set = ranked.computeIfAbsent(leader, k -> new TreeSet<>(ORDER));
+        if (previous != null) {
+            set.remove(previous);
+        }
+        set.add(standing);
+        if (set.size() > maxPerLeader) {
+            Standing dropped = set.pollLast();
+            byUser.get(leader).remove(dropped.username());
+        }
+    }
+
+    /**
+     * Gets the top players for a leader.
+     * @param leader The leader's name.
+     * @param limit The maximum number of standings.
+     * @return Standings sorted by score descending, then time ascending.
+     */
+    public synchronized List<Standing> top(String leader, int limit) {
+        TreeSet<Standing> set = ranked.get(leader);
+        if (set == null) {
+            return List.of();
+        }
+        List<Standing> result = new ArrayList<>(Math.min(limit, set.size()));
+        for (Standing standing : set) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(standing);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the names of all leaders that have at least one ranked player.
+     * @return The leader names in alphabetical order.
+     */
+    public synchronized List<String> leaders() {
+        return new ArrayList<>(ranked.keySet());
+    }
+}
@@ -0,0 +1,30 @@
+package com.echoesofcommand;
+
+import java.util.List;
+
+/**
+ * Folds finished sessions into the windowed and per-leader leaderboards.
+ */
+public class LeaderboardEventConsumer implements EventPipeline.Consumer {
+    private final PlayerManager players;
+
+    /**
+     * Creates the consumer.
+     * @param players The player manager owning the leaderboards.
+     */
+    public LeaderboardEventConsumer(PlayerManager players) {
+        this.players = players;
+    }
+
+    @Override
+    public void onBatch(List<GameEvent> batch) {
+        for (GameEvent event : batch) {
+            if (event instanceof GameEvent.SessionCompleted session) {
+                players.recordWindowedSession(session.player().getUsername(), session.score(), session.elapsedMillis());
+                if (session.singleLeader() != null) {
+                    players.recordLeaderSession(session.player(), session.singleLeader(), session.score(), session.elapsedMillis());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.echoesofcommand;
+
+/**
+ * Rolling time windows for leaderboards, each described by its bucket size and bucket count.
+ */
+public enum LeaderboardWindow {
+    /** The last 24 hours, aggregated in hourly buckets. */
+    DAILY("Daily", 60L * 60 * 1000, 24),
+    /** The last 7 days, aggregated in daily buckets. */
+    WEEKLY("Weekly", 24L * 60 * 60 * 1000, 7);
+
+    private final String label;
+    private final long bucketMillis;
+    private final int bucketCount;
+
+    LeaderboardWindow(String label, long bucketMillis, int bucketCount) {
+        this.label = label;
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+    }
+
+    /**
+     * Gets the display label of the window.
+     * @return The label.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Gets the width of one aggregation bucket.
+     * @return The bucket width in milliseconds.
+     */
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * Gets the number of buckets covered by the window.
+     * @return The bucket count.
+     */
+    public int getBucketCount() {
+        return bucketCount;
+    }
+}
@@ -3,20 +3,33 @@ package com.echoesofcommand;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Represents a level in the game with a description, choices, and summary.
  */
 public class Level {
+    /** Largest valid level number; archives and session histories store level numbers in 16 bits. */
+    public static final int MAX_NUMBER = Short.MAX_VALUE;
+
     private int number;
     private String description;
     private List<Choice> choices;
     private String summary;
     private String leaderName;
+    private transient List<Choice> contentOrder;
 
     /**
-     * Default constructor for JSON deserialization.
+     * Checks whether a level number is in the range every store can hold.
+     * @param number The level number.
+     * @return True if it is between 0 and {@link #MAX_NUMBER}.
      */
+    public static boolean isValidNumber(int number) {
+        return number >= 0 && number <= MAX_NUMBER;
+    }
+
+    /**
+     * Default constructor for JSON deserialization.
     public Level() {
         this.choices = new ArrayList<>();
     }
@@ -81,6 +94,31 @@ public class Level {
      * Randomizes the order of the choices.
      */
     public void randomizeChoices() {
+        rememberContentOrder();
         Collections.shuffle(choices);
     }
+
+    /**
+     * Randomizes the order of the choices with the given source of randomness.
+     * @param random The random generator, seeded for reproducible order.
+     */
+    public void randomizeChoices(Random random) {
+        rememberContentOrder();
+        Collections.shuffle(choices, random);
+    }
+
+    /**
+     * Gets the position a choice has in the content file, regardless of any randomization.
+     * @param choice One of this level's choices.
+     * @return The 0-based index in content order, or -1 if the choice does not belong to this level.
+     */
+    public int contentIndexOf(Choice choice) {
+        return (contentOrder != null ? contentOrder : choices).indexOf(choice);
+    }
+
+    private void rememberContentOrder() {
+        if (contentOrder == null) {
+            contentOrder = new ArrayList<>(choices);
+        }
+    }
 }
\ No newline at end of file
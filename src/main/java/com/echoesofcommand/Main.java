@@ -1,30 +1,139 @@
 package com.echoesofcommand;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Main entry point for the Echoes of Command game.
  */
 public class Main {
     private static final String LEADERS_FILE = "history.json";
+    private static final String PACKS_RESOURCE_DIR = "packs";
+    private static final String PACKS_DIR_PROPERTY = "eoc.packs.dir";
+    private static final int CONTENT_SEARCH_LIMIT = 10;
+    private static final int LEADER_BOARD_LIMIT = 10;
+    private static final long SYNC_INTERVAL_SECONDS = 10;
+    private static final String EVENTS_CAPACITY_PROPERTY = "eoc.events.capacity";
+    private static final String EVENTS_BACKPRESSURE_PROPERTY = "eoc.events.backpressure";
+    private static final String HTTP_PORT_PROPERTY = "eoc.http.port";
+    private static final String SESSIONS_MAX_PROPERTY = "eoc.sessions.max";
+    private static final String SESSIONS_QUEUE_PROPERTY = "eoc.sessions.queue";
+    private static final String SESSIONS_WAIT_PROPERTY = "eoc.sessions.wait.millis";
+    private static final String CONTENT_WATCH_PROPERTY = "eoc.content.watch";
+    private static final String CHECKPOINT_INTERVAL_PROPERTY = "eoc.checkpoint.interval.seconds";
 
     /**
-     * Starts the game.
-     * @param args Command-line arguments (unused).
+     * Starts the game, grades a batch file when run as {@code --grade <input.jsonl> <output.jsonl>},
+     * or converts stored data when run as {@code --migrate <conversion> <source> <target>}; see {@link #runMigration}.
+     * @param args Command-line arguments.
      */
     public static void main(String[] args) {
+        if (args.length == 3 && "--grade".equals(args[0])) {
+            runBatchGrading(Path.of(args[1]), Path.of(args[2]));
+            return;
+        }
+        if (args.length == 4 && "--migrate".equals(args[0])) {
+            if (!runMigration(args[1], Path.of(args[2]), Path.of(args[3]))) {
+                System.exit(1);
+            }
+            return;
+        }
+        // Players, archive and content load concurrently; each feature waits only for the data it needs.
+        StartupPipeline startup = new StartupPipeline();
         ConsoleUI ui = new ConsoleUI();
-        PlayerManager pm = new PlayerManager();
-        ArchiveManager am = new ArchiveManager();
         JsonLoader loader = new JsonLoader();
+        CatalogHolder catalog = new CatalogHolder(
+                () -> ContentCatalog.load(loader, LEADERS_FILE, PACKS_RESOURCE_DIR, packsDirectory()));
+        StartupPipeline.Phase<PlayerManager> players = startup.start("players", PlayerManager::new);
+        StartupPipeline.Phase<ArchiveManager> archive = startup.start("archive", () -> new ArchiveManager(catalog));
+        startup.start("content", catalog::get);
+        AtomicReference<ContentIndex> contentIndex = new AtomicReference<>();
+        if (Boolean.parseBoolean(System.getProperty(CONTENT_WATCH_PROPERTY, "true"))) {
+            // The leader index is rebuilt lazily after a reload; its sidecar is revalidated against the file.
+            catalog.addReloadListener(c -> {
+                contentIndex.set(null);
+                System.out.println("[Content reloaded: " + c.getLeaders().size() + " leaders]");
+            });
+            try {
+                catalog.watch(contentDirectories(loader));
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Content changes will not be picked up: " + e.getMessage());
+            }
+        }
+        GameMetrics metrics = new GameMetrics();
+        StartupPipeline.Phase<EventPipeline> pipeline = startup.start("events", List.of(players, archive), () -> {
+            EventPipeline events = new EventPipeline(
+                    Integer.getInteger(EVENTS_CAPACITY_PROPERTY, 1024),
+                    EventPipeline.Backpressure.valueOf(System.getProperty(EVENTS_BACKPRESSURE_PROPERTY, "BLOCK")),
+                    List.of(new EventPipeline.Named("archive", new ArchiveEventConsumer(archive.get())),
+                            new EventPipeline.Named("stats", new StatsEventConsumer(players.get())),
+                            new EventPipeline.Named("leaderboard", new LeaderboardEventConsumer(players.get())),
+                            new EventPipeline.Named("metrics", metrics)));
+            Runtime.getRuntime().addShutdownHook(new Thread(events::close, "events-shutdown"));
+            return events;
+        });
+
+        SessionScheduler scheduler = new SessionScheduler(
+                Integer.getInteger(SESSIONS_MAX_PROPERTY, Runtime.getRuntime().availableProcessors() * 4),
+                Integer.getInteger(SESSIONS_QUEUE_PROPERTY, 64),
+                Long.getLong(SESSIONS_WAIT_PROPERTY, 30_000));
+
+        Integer httpPort = Integer.getInteger(HTTP_PORT_PROPERTY);
+        StartupPipeline.Phase<ReadApiServer> readApi = httpPort == null ? null
+                : startup.start("api", List.of(players, archive), () -> {
+                    try {
+                        ReadApiServer server = new ReadApiServer(httpPort, players.get(), archive.get(), scheduler, metrics);
+                        server.start();
+                        System.out.println("[Read API listening on port " + server.getPort() + "]");
+                        return server;
+                    } catch (IOException e) {
+                        System.err.println("Warning: Could not start read API on port " + httpPort + ": " + e.getMessage());
+                        return null;
+                    }
+                });
+
+        String syncDir = System.getProperty(PlayerSync.SYNC_DIR_PROPERTY);
+        StartupPipeline.Phase<PlayerSync> playerSync = syncDir == null ? null
+                : startup.start("sync", List.of(players), () -> {
+                    PlayerSync started = new PlayerSync(players.get(), Path.of(syncDir), SYNC_INTERVAL_SECONDS);
+                    started.start();
+                    return started;
+                });
+        // Periodic checkpoints bound how much of the change journal the next start has to replay.
+        ScheduledExecutorService checkpoints = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "player-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        long checkpointSeconds = Long.getLong(CHECKPOINT_INTERVAL_PROPERTY, 300);
+        checkpoints.scheduleWithFixedDelay(() -> {
+            try {
+                players.get().checkpoint();
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Player checkpoint failed: " + e.getMessage());
+            }
+        }, checkpointSeconds, checkpointSeconds, TimeUnit.SECONDS);
+        startup.reportWhenDone();
 
         boolean running = true;
         while (running) {
+            startup.markInteractive();
             ui.displayWelcomeMessage();
 
             // Player login
             PlayerRecord player;
             String username = ui.promptUsername();
+            PlayerManager pm = players.get();
             player = pm.login(username);
             ui.displayWelcomeForPlayer(player);
 
@@ -32,41 +141,53 @@ public class Main {
             while (userActive) {
                 ui.searchDisabledNotice();
                 int mode = ui.promptPlayMode();
-                if (mode == 4) {
+                if (mode == 5) {
                     userActive = false;
                     running = false;
                     break;
                 }
 
-                List<Leader> allLeaders;
+                List<Leader> toPlay;
+                boolean sequential = false;
+                boolean randomized = false;
                 try {
-                    allLeaders = loader.loadLeaders(LEADERS_FILE);
+                    if (mode == 1) {
+                        // Single-leader mode only parses the chosen leader's levels.
+                        ContentIndex index = contentIndex.get();
+                        if (index == null) {
+                            index = ContentIndex.load(loader, LEADERS_FILE, PACKS_RESOURCE_DIR, packsDirectory());
+                            contentIndex.set(index);
+                        }
+                        toPlay = List.of(index.materialize(ui.selectLeader(index.getEntries())));
+                    } else {
+                        // Waits for the startup load if it is still running, and retries it if it failed.
+                        ContentCatalog current = catalog.get();
+                        if (mode == 4) {
+                            String query = ui.promptSearchKeyword();
+                            ui.displayContentSearchResults(query, current.search(query, CONTENT_SEARCH_LIMIT));
+                            continue;
+                        }
+                        toPlay = current.getLeaders();
+                        sequential = mode == 2;
+                        randomized = mode == 3;
+                    }
                 } catch (Exception e) {
                     System.err.println("Error loading leaders: " + e.getMessage());
                     System.out.println("Cannot start game without leaders. Please try again later.");
                     break;
                 }
 
-                List<Leader> toPlay;
-                boolean sequential = false;
-                boolean randomized = false;
-                if (mode == 1) {
-                    toPlay = List.of(ui.selectLeader(allLeaders));
-                } else if (mode == 2) {
-                    toPlay = allLeaders;
-                    sequential = true;
-                } else {
-                    toPlay = allLeaders;
-                    randomized = true;
+                EventPipeline events = pipeline.get();
+                Game game = new Game(toPlay, ui, player, events, sequential, randomized);
+                if (!scheduler.run(ui, game::start)) {
+                    continue;
                 }
 
-                Game game = new Game(toPlay, ui, player, am, sequential, randomized);
-                game.start();
-
-                pm.save();
+                // Let the consumers catch up so the archive, stats and boards shown next are current.
+                events.awaitDrained();
 
                 if (ui.promptArchiveSearch()) {
-                    am.promptSearch(ui);
+                    archive.get().promptSearch(ui);
                 }
 
                 int next = ui.promptPostRoundOption();
@@ -81,7 +202,119 @@ public class Main {
                 }
             }
             ui.displayLeaderboard(pm.leaderboard());
+            for (String leader : pm.rankedLeaders()) {
+                ui.displayLeaderLeaderboard(leader, pm.leaderboard(leader, LEADER_BOARD_LIMIT));
+            }
+            for (LeaderboardWindow window : LeaderboardWindow.values()) {
+                ui.displayWindowedLeaderboard(window, pm.leaderboard(window));
+            }
+        }
+        ReadApiServer api = readApi != null ? readApi.get() : null;
+        if (api != null) {
+            api.stop();
+        }
+        catalog.close();
+        pipeline.get().close();
+        checkpoints.shutdown();
+        players.get().checkpoint();
+        if (playerSync != null && playerSync.isReady()) {
+            playerSync.get().stop();
         }
         ui.displayGoodbyeMessage();
     }
+
+    /**
+     * Grades a JSONL file of sessions headlessly and prints a summary.
+     * @param input The JSONL file of sessions.
+     * @param output The JSONL file to write results to.
+     */
+    private static void runBatchGrading(Path input, Path output) {
+        try {
+            ContentCatalog catalog = ContentCatalog.load(new JsonLoader(), LEADERS_FILE, PACKS_RESOURCE_DIR, packsDirectory());
+            BatchGrader grader = new BatchGrader(catalog, new PlayerManager(), new ArchiveManager(new CatalogHolder(() -> catalog)));
+            BatchGrader.Summary summary = grader.grade(input, output);
+            System.out.printf("Graded %d sessions (%d errors) in %.2f seconds%n",
+                    summary.sessions(), summary.errors(), summary.elapsedMillis() / 1000.0);
+        } catch (Exception e) {
+            System.err.println("Error grading " + input + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one data conversion with progress on standard output. Conversions:
+     * <ul>
+     *     <li>{@code players-import}: players.json file to player store directory</li>
+     *     <li>{@code players-export}: player store directory to players.json file</li>
+     *     <li>{@code archive-import}: old archive.json to the compact format</li>
+     *     <li>{@code archive-export}: compact archive to the old format, with text from the content catalog</li>
+     * </ul>
+     * Should not run while the game is using the same files.
+     * @param conversion The conversion name.
+     * @param source The file or directory to read.
+     * @param target The file or directory to write.
+     * @return True if the conversion finished and every written record was verified.
+     */
+    private static boolean runMigration(String conversion, Path source, Path target) {
+        Consumer<DataMigration.Progress> progress = p -> System.out.println("[" + p.phase() + ": " + p.records()
+                + " records" + (p.percent() >= 0 ? ", " + p.percent() + "%" : "") + "]");
+        DataMigration.Report report;
+        try {
+            report = switch (conversion) {
+                case "players-import" -> DataMigration.importPlayers(source, new PlayerStore(target), progress);
+                case "players-export" -> DataMigration.exportPlayers(new PlayerStore(source), target, progress);
+                case "archive-import" -> DataMigration.importArchive(source, target, progress);
+                case "archive-export" -> DataMigration.exportArchive(source, target,
+                        ContentCatalog.load(new JsonLoader(), LEADERS_FILE, PACKS_RESOURCE_DIR, packsDirectory()), progress);
+                default -> {
+                    System.err.println("Error: Unknown conversion " + conversion
+                            + "; use players-import, players-export, archive-import or archive-export");
+                    yield null;
+                }
+            };
+        } catch (Exception e) {
+            System.err.println("Error migrating " + source + ": " + e.getMessage());
+            return false;
+        }
+        if (report == null) {
+            return false;
+        }
+        System.out.printf("Read %d, wrote %d, skipped %d, verified %d in %.2f seconds%n",
+                report.read(), report.written(), report.skipped(), report.verified(), report.elapsedMillis() / 1000.0);
+        if (!report.isVerified()) {
+            System.err.println("Error: " + (report.written() - report.verified()) + " written records are missing from " + target);
+        }
+        return report.isVerified();
+    }
+
+    /**
+     * Gets the filesystem directories holding content files, to watch for changes.
+     * Content packaged inside a jar cannot change at runtime and is not watched.
+     * @param loader The loader used to discover packs.
+     * @return The directories of the base content file, the packs and the packs directory.
+     */
+    private static Set<Path> contentDirectories(JsonLoader loader) {
+        Set<Path> directories = new LinkedHashSet<>();
+        for (URL pack : loader.discoverPacks(LEADERS_FILE, PACKS_RESOURCE_DIR, packsDirectory())) {
+            if ("file".equals(pack.getProtocol())) {
+                try {
+                    directories.add(Path.of(pack.toURI()).getParent());
+                } catch (URISyntaxException e) {
+                    System.err.println("Warning: Cannot watch " + pack + ": " + e.getMessage());
+                }
+            }
+        }
+        if (packsDirectory() != null) {
+            directories.add(packsDirectory());
+        }
+        return directories;
+    }
+
+    /**
+     * Gets the optional filesystem directory holding extra content packs.
+     * @return The directory, or null if none is configured.
+     */
+    private static Path packsDirectory() {
+        String packsDir = System.getProperty(PACKS_DIR_PROPERTY);
+        return packsDir != null ? Path.of(packsDir) : null;
+    }
 }
\ No newline at end of file
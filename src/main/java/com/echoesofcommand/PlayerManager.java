@@ -2,38 +2,234 @@ package com.echoesofcommand;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.*;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 /**
  * Manages player records, including registration, login, and leaderboard functionality.
+ * <p>
+ * Records live in a {@link PlayerStore} with one file per player. Only recently and frequently used
+ * records are kept in a bounded {@link TinyLfuCache}; a changed record is written back when it is
+ * evicted or on the next {@link #save()}, whichever comes first. Every record handed out stays the
+ * one canonical instance for its player for as long as anyone holds it, even after eviction, so a
+ * session in flight and a fresh lookup never update two diverging copies. Leaderboards are kept as
+ * capped rankings, so heap use follows the number of active players rather than registered ones.
+ * A {@code players.json} file from before the store existed is imported on first start.
+ * <p>
+ * The rankings and the username index are derived from every stored record. {@link #checkpoint()}
+ * saves them to a binary {@link IndexSnapshot}; on startup they are restored from it and only records
+ * written since, as listed by the store's change journal, are read again, so a restart does not scan
+ * the whole store. Without a usable snapshot the indexes are rebuilt with one streaming pass.
  */
 public class PlayerManager {
     private static final String PLAYERS_FILE = "players.json";
-    private Map<String, PlayerRecord> records;
+    private static final String WINDOWS_FILE = "leaderboards.json";
+    private static final String STORE_DIR = "players";
+    private static final String SNAPSHOT_FILE = ".indexes.snapshot";
+    /** System property setting how many player records are kept in memory. */
+    public static final String CACHE_SIZE_PROPERTY = "eoc.players.cache";
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
+    static final int RANKING_DEPTH = 1000;
+    private static final int ALL_TIME_LIMIT = 100;
+    /** The single ranking key of the all-time board, which has its own rankings instance. */
+    private static final String ALL_TIME = "all-time";
 
+    private final PlayerStore store;
+    private final TinyLfuCache<String, PlayerRecord> cache;
+    private final Map<String, RecordRef> live = new ConcurrentHashMap<>();
+    private final ReferenceQueue<PlayerRecord> collected = new ReferenceQueue<>();
+    private final Map<String, PlayerRecord> unsaved = new ConcurrentHashMap<>();
+    private final Map<String, PlayerRecord> evictedChanges = new ConcurrentHashMap<>();
+    private final Object[] writeLocks = new Object[64];
+    private final Map<String, TimeWindowLeaderboard> windows;
+    private final LeaderRankings leaderRankings = new LeaderRankings(RANKING_DEPTH);
+    private final LeaderRankings allTime = new LeaderRankings(RANKING_DEPTH);
+    private final UsernameIndex usernames = new UsernameIndex();
+    private final AtomicLong version = new AtomicLong();
     /**
-     * Initializes the PlayerManager by loading existing player records from file.
+     * Held shared while a record change and its ranking update are applied, and exclusively while a
+     * snapshot rotates the journal and captures the indexes, so no change is written before the rotation
+     * yet ranked after the capture.
+     */
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final Object snapshotLock = new Object();
+
+    /**
+     * Weak reference to a handed-out record that remembers its username, so collected entries can be purged.
+     */
+    private static final class RecordRef extends WeakReference<PlayerRecord> {
+        final String username;
+
+        RecordRef(PlayerRecord record, ReferenceQueue<PlayerRecord> queue) {
+            super(record, queue);
+            this.username = record.getUsername();
+        }
+    }
+
+    /**
+     * Initializes the PlayerManager with the default store directory and cache size, importing
+     * {@code players.json} on first start and loading the windowed leaderboards from file.
      */
     public PlayerManager() {
-        this.records = loadRecords();
+        this(new PlayerStore(Path.of(STORE_DIR)), Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+    }
+
+    /**
+     * Initializes the PlayerManager over the given store.
+     * @param store The persistent player store.
+     * @param cacheSize The maximum number of records kept in memory.
+     */
+    public PlayerManager(PlayerStore store, int cacheSize) {
+        this.store = store;
+        this.cache = new TinyLfuCache<>(cacheSize);
+        for (int i = 0; i < writeLocks.length; i++) {
+            writeLocks[i] = new Object();
+        }
+        importLegacyFile();
+        this.windows = loadWindows();
+        if (!restoreIndexes()) {
+            // One streaming pass rebuilds the rankings and collects usernames without keeping any record in memory.
+            List<String> stored = new ArrayList<>();
+            store.forEach(record -> {
+                rank(record);
+                stored.add(record.getUsername());
+            });
+            usernames.addAll(stored);
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Restores the derived indexes from the snapshot, then re-reads the records written since it was taken.
+     * @return False if there is no usable snapshot.
+     */
+    private boolean restoreIndexes() {
+        IndexSnapshot snapshot = IndexSnapshot.read(store.getDirectory().resolve(SNAPSHOT_FILE));
+        if (snapshot == null) {
+            return false;
+        }
+        usernames.addAll(snapshot.usernames());
+        snapshot.leaderRankings().forEach((leader, standings) -> {
+            for (Standing standing : standings) {
+                leaderRankings.update(leader, standing.username(), standing.score(), standing.timeMillis());
+            }
+        });
+        for (Standing standing : snapshot.allTime()) {
+            allTime.update(ALL_TIME, standing.username(), standing.score(), standing.timeMillis());
+        }
+        Set<String> changed = new LinkedHashSet<>();
+        try {
+            store.replayJournals(snapshot.replayFrom(), changed::add);
+        } catch (UncheckedIOException e) {
+            System.err.println("Warning: Rebuilding player indexes, change journal unreadable: " + e.getMessage());
+            return false;
+        }
+        List<String> added = new ArrayList<>();
+        for (String username : changed) {
+            PlayerRecord record = store.load(username);
+            if (record != null) {
+                rank(record);
+                added.add(username);
+            }
+        }
+        usernames.addAll(added);
+        return true;
+    }
+
+    /**
+     * Saves every changed record, then snapshots the derived indexes so the next start can skip rebuilding them.
+     */
+    public void checkpoint() {
+        save();
+        writeSnapshot();
+    }
+
+    private void writeSnapshot() {
+        synchronized (snapshotLock) {
+            long replayFrom;
+            Map<String, List<Standing>> leaders = new LinkedHashMap<>();
+            List<String> names;
+            List<Standing> allTimeStandings;
+            indexLock.writeLock().lock();
+            try {
+                replayFrom = store.rotateJournal();
+                for (String leader : leaderRankings.leaders()) {
+                    leaders.put(leader, leaderRankings.top(leader, Integer.MAX_VALUE));
+                }
+                names = usernames.withPrefix("", Integer.MAX_VALUE);
+                allTimeStandings = allTime.top(ALL_TIME, Integer.MAX_VALUE);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            IndexSnapshot snapshot = new IndexSnapshot(replayFrom, names, leaders, allTimeStandings);
+            try {
+                snapshot.write(store.getDirectory().resolve(SNAPSHOT_FILE));
+                store.deleteJournalsBefore(replayFrom);
+            } catch (IOException e) {
+                System.err.println("Warning: Could not write player index snapshot: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Imports the single-file player records written before the store existed, once.
+     */
+    private void importLegacyFile() {
+        File legacy = new File(PLAYERS_FILE);
+        File imported = new File(PLAYERS_FILE + ".imported");
+        if (!legacy.exists() || imported.exists()) {
+            return;
+        }
+        DataMigration.Report report;
+        try {
+            report = DataMigration.importPlayers(legacy.toPath(), store, progress -> System.out.println(
+                    "[Importing player records: " + progress.records() + " (" + progress.percent() + "%)]"));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Could not import player records from " + PLAYERS_FILE + ": " + e.getMessage());
+            return;
+        }
+        if (!report.isVerified()) {
+            System.err.println("Warning: Only " + report.verified() + " of " + report.written()
+                    + " imported player records were found in the store; keeping " + PLAYERS_FILE);
+            return;
+        }
+        long count = report.written();
+        if (!legacy.renameTo(imported)) {
+            System.err.println("Warning: Imported " + count + " player records but could not rename " + PLAYERS_FILE);
+        }
     }
 
     /**
-     * Loads player records from the players.json file.
-     * @return A map of usernames to PlayerRecord objects, or an empty map if loading fails.
+     * Loads the windowed leaderboards from the leaderboards.json file.
+     * @return A map of window names to leaderboards, with an empty leaderboard for any missing window.
      */
-    private Map<String, PlayerRecord> loadRecords() {
-        try (Reader reader = new FileReader(PLAYERS_FILE)) {
-            Type type = new TypeToken<Map<String, PlayerRecord>>(){}.getType();
-            Map<String, PlayerRecord> loaded = new Gson().fromJson(reader, type);
-            return loaded != null ? loaded : new HashMap<>();
+    private Map<String, TimeWindowLeaderboard> loadWindows() {
+        Map<String, TimeWindowLeaderboard> loaded = null;
+        try (Reader reader = new FileReader(WINDOWS_FILE)) {
+            Type type = new TypeToken<Map<String, TimeWindowLeaderboard>>(){}.getType();
+            loaded = new Gson().fromJson(reader, type);
+        } catch (FileNotFoundException e) {
+            // First run: start with empty windows.
         } catch (IOException e) {
-            System.err.println("Warning: Could not load player records: " + e.getMessage() + ". Using empty records.");
-            return new HashMap<>();
+            System.err.println("Warning: Could not load windowed leaderboards: " + e.getMessage() + ". Using empty leaderboards.");
+        }
+        Map<String, TimeWindowLeaderboard> result = loaded != null ? loaded : new HashMap<>();
+        for (LeaderboardWindow window : LeaderboardWindow.values()) {
+            result.putIfAbsent(window.name(), new TimeWindowLeaderboard(window));
         }
+        return result;
     }
 
     /**
@@ -42,12 +238,54 @@ public class PlayerManager {
      * @return The PlayerRecord for the user.
      */
     public PlayerRecord login(String username) {
-        PlayerRecord record = records.computeIfAbsent(username, k -> new PlayerRecord(username));
+        PlayerRecord record = lookup(username, true);
         record.recordLogin(System.currentTimeMillis());
+        markChanged();
         save();
         return record;
     }
 
+    /**
+     * Gets a player's record, creating it if needed, without recording a login or saving.
+     * @param username The player's username.
+     * @return The PlayerRecord for the user.
+     */
+    public PlayerRecord getOrCreate(String username) {
+        return lookup(username, true);
+    }
+
+    /**
+     * Gets a player's record without creating it.
+     * @param username The player's username.
+     * @return The record, or null if the player is unknown.
+     */
+    public PlayerRecord find(String username) {
+        return lookup(username, false);
+    }
+
+    /**
+     * Gets the data version, which changes whenever player data changes.
+     * @return The current version.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Signals that player data changed outside this manager, such as a session applied to a record.
+     */
+    public void markChanged() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Gets the record cache's hit, miss and eviction counts.
+     * @return The cache statistics.
+     */
+    public TinyLfuCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
     /**
      * Registers a new user, throwing an exception if the username is taken.
      * @param username The desired username.
@@ -55,38 +293,362 @@ public class PlayerManager {
      * @throws IllegalArgumentException If the username already exists.
      */
     public PlayerRecord registerUser(String username) {
-        if (records.containsKey(username)) {
-            throw new IllegalArgumentException(
-                    "Username '" + username + "' already exists. Please choose another one."
-            );
+        PlayerRecord record;
+        synchronized (cache) {
+            if (lookup(username, false) != null) {
+                throw new IllegalArgumentException(
+                        "Username '" + username + "' already exists. Please choose another one."
+                );
+            }
+            record = lookup(username, true);
         }
-        PlayerRecord record = new PlayerRecord(username);
         record.recordLogin(System.currentTimeMillis());
-        records.put(username, record);
+        markChanged();
         save();
         return record;
     }
 
     /**
-     * Saves player records to the players.json file.
+     * Writes every changed player record to the store, and the windowed leaderboards to their file.
      */
     public void save() {
-        try (Writer writer = new FileWriter(PLAYERS_FILE)) {
-            new Gson().toJson(records, writer);
-        } catch (IOException e) {
-            System.err.println("Error: Failed to save player records: " + e.getMessage());
+        FlightEvents.PlayerSave event = new FlightEvents.PlayerSave();
+        event.begin();
+        int written = 0;
+        for (PlayerRecord record : unsaved.values()) {
+            if (writeBack(record)) {
+                written++;
+            }
+        }
+        Gson gson = new Gson();
+        synchronized (windows) {
+            try (JsonWriter writer = new JsonWriter(new BufferedWriter(new FileWriter(WINDOWS_FILE)))) {
+                writer.beginObject();
+                for (Map.Entry<String, TimeWindowLeaderboard> entry : windows.entrySet()) {
+                    writer.name(entry.getKey());
+                    synchronized (entry.getValue()) {
+                        gson.toJson(entry.getValue(), TimeWindowLeaderboard.class, writer);
+                    }
+                }
+                writer.endObject();
+            } catch (IOException e) {
+                System.err.println("Error: Failed to save windowed leaderboards: " + e.getMessage());
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.records = written;
+            event.bytesWritten = new File(WINDOWS_FILE).length();
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a finished session's score and time, and updates the all-time board if it is a new best.
+     * @param player The player's record.
+     * @param score The session score.
+     * @param timeMillis The session duration in milliseconds.
+     * @param sequential True if sequential mode, false otherwise.
+     */
+    public void recordSession(PlayerRecord player, int score, long timeMillis, boolean sequential) {
+        indexLock.readLock().lock();
+        try {
+            player.recordSession(score, timeMillis, sequential);
+            allTime.update(ALL_TIME, player.getUsername(), player.getBestScore(), player.getBestTimeMillis());
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Folds a finished session into every rolling leaderboard window.
+     * @param username The player's username.
+     * @param score The session score.
+     * @param timeMillis The session duration in milliseconds.
+     */
+    public void recordWindowedSession(String username, int score, long timeMillis) {
+        long now = System.currentTimeMillis();
+        for (TimeWindowLeaderboard board : windows.values()) {
+            board.record(username, score, timeMillis, now);
+        }
+        markChanged();
+    }
+
+    /**
+     * Records a single-leader session and updates that leader's ranking if it is a new best.
+     * @param player The player's record.
+     * @param leader The leader that was played.
+     * @param score The session score.
+     * @param timeMillis The session duration in milliseconds.
+     */
+    public void recordLeaderSession(PlayerRecord player, String leader, int score, long timeMillis) {
+        indexLock.readLock().lock();
+        try {
+            if (!player.recordLeaderSession(leader, score, timeMillis)) {
+                return;
+            }
+            leaderRankings.update(leader, player.getUsername(),
+                    player.getBestLeaderScore(leader), player.getBestLeaderTimeMillis(leader));
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        markChanged();
+    }
+
+    /**
+     * Collects snapshots of every record that changed locally since the previous call.
+     * @return Usernames mapped to detached record snapshots.
+     */
+    public Map<String, PlayerRecord> collectChanges() {
+        Map<String, PlayerRecord> changes = new HashMap<>();
+        for (String username : new ArrayList<>(evictedChanges.keySet())) {
+            PlayerRecord snapshot = evictedChanges.remove(username);
+            if (snapshot != null) {
+                changes.put(username, snapshot);
+            }
+        }
+        for (PlayerRecord record : liveRecords()) {
+            PlayerRecord snapshot = record.takeSnapshotIfDirty();
+            if (snapshot != null) {
+                changes.merge(record.getUsername(), snapshot, (older, newer) -> {
+                    newer.merge(older);
+                    return newer;
+                });
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Streams a snapshot of every player's record, for a full-state sync, without loading them all at once.
+     * @param action Receives each snapshot.
+     */
+    public void forEachSnapshot(Consumer<PlayerRecord> action) {
+        save();
+        store.forEach(stored -> {
+            PlayerRecord current = canonical(stored.getUsername());
+            action.accept(current != null ? current.snapshot() : stored);
+        });
+    }
+
+    /**
+     * Finds known usernames starting with a prefix, ignoring case, for player search and autocomplete.
+     * @param prefix The prefix typed so far.
+     * @param limit The maximum number of usernames.
+     * @return The matching usernames in case-insensitive alphabetical order.
+     */
+    public List<String> suggestUsernames(String prefix, int limit) {
+        return usernames.withPrefix(prefix, limit);
+    }
+
+    /**
+     * Lists known usernames in a case-insensitive alphabetical range, for paging through players.
+     * @param from The inclusive lower bound, such as the last username of the previous page.
+     * @param to The exclusive upper bound, or null for no upper bound.
+     * @param limit The maximum number of usernames.
+     * @return The usernames in range in case-insensitive alphabetical order.
+     */
+    public List<String> usernamesBetween(String from, String to, int limit) {
+        return usernames.range(from, to, limit);
+    }
+
+    /**
+     * Merges player state received from another node and refreshes the rankings.
+     * @param remote Usernames mapped to the other node's records.
+     */
+    public void mergeRemote(Map<String, PlayerRecord> remote) {
+        for (Map.Entry<String, PlayerRecord> entry : remote.entrySet()) {
+            PlayerRecord local = lookup(entry.getKey(), true);
+            indexLock.readLock().lock();
+            try {
+                local.merge(entry.getValue());
+                rank(local);
+            } finally {
+                indexLock.readLock().unlock();
+            }
         }
+        markChanged();
     }
 
     /**
-     * Generates a sorted leaderboard based on best scores and times.
-     * @return A sorted list of PlayerRecord objects.
+     * Generates the all-time leaderboard based on best scores and times. Records are read without being
+     * admitted to the cache, so polling the board does not make its players look frequently used.
+     * @return The top players' records, best first.
      */
     public List<PlayerRecord> leaderboard() {
-        List<PlayerRecord> list = new ArrayList<>(records.values());
-        list.sort(Comparator.comparingInt(PlayerRecord::getBestScore)
-                .reversed()
-                .thenComparingLong(PlayerRecord::getBestTimeMillis));
+        List<PlayerRecord> list = new ArrayList<>();
+        for (Standing standing : allTime.top(ALL_TIME, ALL_TIME_LIMIT)) {
+            PlayerRecord record = peek(standing.username());
+            if (record != null) {
+                list.add(record);
+            }
+        }
         return list;
     }
+
+    /**
+     * Gets the rolling leaderboard for a time window, served from bucketed aggregates.
+     * @param window The time window.
+     * @return Standings sorted by best score, then best time.
+     */
+    public List<Standing> leaderboard(LeaderboardWindow window) {
+        return windows.get(window.name()).standings(System.currentTimeMillis());
+    }
+
+    /**
+     * Gets the top single-leader results for one leader from its ranked index.
+     * @param leader The leader's name.
+     * @param limit The maximum number of standings.
+     * @return Standings sorted by best score, then best time.
+     */
+    public List<Standing> leaderboard(String leader, int limit) {
+        return leaderRankings.top(leader, limit);
+    }
+
+    /**
+     * Gets the leaders that have at least one ranked single-leader result.
+     * @return The leader names in alphabetical order.
+     */
+    public List<String> rankedLeaders() {
+        return leaderRankings.leaders();
+    }
+
+    /**
+     * Finds or loads the canonical record for a player: the cached one, else one still held elsewhere
+     * after eviction, else the stored one, else a new one if requested.
+     */
+    private PlayerRecord lookup(String username, boolean create) {
+        List<Map.Entry<String, PlayerRecord>> evicted;
+        PlayerRecord record;
+        synchronized (cache) {
+            record = cache.get(username);
+            if (record != null) {
+                return record;
+            }
+            purgeCollected();
+            record = canonical(username);
+            if (record == null) {
+                record = store.load(username);
+                if (record == null && !create) {
+                    return null;
+                }
+                boolean created = record == null;
+                if (created) {
+                    record = new PlayerRecord(username);
+                    usernames.add(username);
+                    markChanged();
+                }
+                live.put(username, new RecordRef(record, collected));
+                record.setUnsavedListener(r -> unsaved.put(r.getUsername(), r));
+                if (created) {
+                    record.markUnsaved();
+                }
+            }
+            evicted = cache.put(username, record);
+        }
+        for (Map.Entry<String, PlayerRecord> entry : evicted) {
+            onEviction(entry.getValue());
+        }
+        return record;
+    }
+
+    /**
+     * Gets the canonical record for a known player without touching the cache: the one in memory, else
+     * the stored one, which is tracked like an evicted record until it is no longer referenced.
+     */
+    private PlayerRecord peek(String username) {
+        synchronized (cache) {
+            purgeCollected();
+            PlayerRecord record = canonical(username);
+            if (record == null) {
+                record = store.load(username);
+                if (record == null) {
+                    return null;
+                }
+                live.put(username, new RecordRef(record, collected));
+                record.setUnsavedListener(r -> unsaved.put(r.getUsername(), r));
+            }
+            return record;
+        }
+    }
+
+    /**
+     * Writes back an evicted record if it has unsaved changes, and keeps any change not yet published
+     * to other nodes so the next sync round still sends it.
+     */
+    private void onEviction(PlayerRecord record) {
+        writeBack(record);
+        PlayerRecord unpublished = record.takeSnapshotIfDirty();
+        if (unpublished != null) {
+            evictedChanges.put(record.getUsername(), unpublished);
+        }
+    }
+
+    /**
+     * Writes a record to the store if it changed since it was last written. Writes of the same player
+     * are serialized, so an older snapshot can never overwrite a newer one.
+     * @return True if the record was written.
+     */
+    private boolean writeBack(PlayerRecord record) {
+        synchronized (writeLocks[Math.floorMod(record.getUsername().hashCode(), writeLocks.length)]) {
+            unsaved.remove(record.getUsername(), record);
+            PlayerRecord snapshot = record.takeSnapshotIfUnsaved();
+            if (snapshot == null) {
+                return false;
+            }
+            try {
+                store.write(snapshot);
+                return true;
+            } catch (RuntimeException e) {
+                // Keep the change so the next save retries it.
+                record.markUnsaved();
+                System.err.println("Error: Failed to save player record: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Gets the in-memory instance of a player's record, if one is still referenced anywhere.
+     */
+    private PlayerRecord canonical(String username) {
+        PlayerRecord record = unsaved.get(username);
+        if (record != null) {
+            return record;
+        }
+        RecordRef ref = live.get(username);
+        return ref != null ? ref.get() : null;
+    }
+
+    /**
+     * Gets every record currently in memory: cached, held by a session, or waiting to be written.
+     */
+    private Collection<PlayerRecord> liveRecords() {
+        Map<String, PlayerRecord> records = new HashMap<>();
+        for (RecordRef ref : live.values()) {
+            PlayerRecord record = ref.get();
+            if (record != null) {
+                records.put(ref.username, record);
+            }
+        }
+        records.putAll(unsaved);
+        return records.values();
+    }
+
+    private void purgeCollected() {
+        Reference<? extends PlayerRecord> ref;
+        while ((ref = collected.poll()) != null) {
+            live.remove(((RecordRef) ref).username, ref);
+        }
+    }
+
+    private void rank(PlayerRecord record) {
+        for (String leader : record.getPlayedLeaders()) {
+            leaderRankings.update(leader, record.getUsername(),
+                    record.getBestLeaderScore(leader), record.getBestLeaderTimeMillis(leader));
+        }
+        if (record.getBestScore() > 0) {
+            allTime.update(ALL_TIME, record.getUsername(), record.getBestScore(), record.getBestTimeMillis());
+        }
+    }
 }
\ No newline at end of file
@@ -1,10 +1,23 @@
 package com.echoesofcommand;
 
+import com.google.gson.Gson;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 /**
  * Represents a player's record, including scores, times, and login history.
+ * <p>
+ * Every field is mergeable so that records from several game nodes converge: play totals are
+ * grow-only counters, best scores are max-registers ordered by score and then lower time, and the
+ * login history is a grow-only set. The plain total fields mirror the counters so existing
+ * {@code players.json} files stay readable. Recent sessions, with per-level think times, are kept
+ * in a compact {@link SessionHistory}.
  */
 public class PlayerRecord {
     private String username;
@@ -16,6 +29,26 @@ public class PlayerRecord {
     private int totalLevelsPlayed = 0;
     private int totalCorrectChoices = 0;
     private long totalTimeMillis = 0;
+    /**
+     * Best single-leader result per leader, packed as {@code score << 32 | (0xFFFFFFFF - timeMillis)}
+     * so that a larger value is always the better result.
+     */
+    private Map<String, Long> leaderBests = new HashMap<>();
+    private GCounter levelsPlayedCounter;
+    private GCounter correctChoicesCounter;
+    private GCounter timeMillisCounter;
+    private SessionHistory sessionHistory;
+    private transient boolean dirty;
+    private transient boolean unsaved;
+    private transient Consumer<PlayerRecord> unsavedListener;
+
+    /**
+     * Prefix of the counter slot that absorbs totals written before records were mergeable. The slot is
+     * per node, so totals that different nodes held before syncing add up instead of one hiding the other.
+     * Only the node holding such totals may seed its slot: a record is seeded before it leaves this node
+     * as a snapshot, and a remote snapshot is never seeded on arrival.
+     */
+    private static final String LEGACY_NODE_PREFIX = "legacy@";
 
     /**
      * Default constructor for JSON deserialization.
@@ -39,7 +72,8 @@ public class PlayerRecord {
      * @param timeMillis The time taken in milliseconds.
      * @param sequential True if sequential mode, false if single-leader mode.
      */
-    public void recordSession(int score, long timeMillis, boolean sequential) {
+    public synchronized void recordSession(int score, long timeMillis, boolean sequential) {
+        changed();
         if (sequential) {
             if (score > bestSequentialScore
                     || (score == bestSequentialScore && timeMillis < bestSequentialTimeMillis)) {
@@ -55,12 +89,93 @@ public class PlayerRecord {
         }
     }
 
+    /**
+     * Records a single-leader session against the leader that was played.
+     * @param leader The leader's name.
+     * @param score The score achieved.
+     * @param timeMillis The time taken in milliseconds.
+     * @return True if this session is the player's new best for the leader.
+     */
+    public synchronized boolean recordLeaderSession(String leader, int score, long timeMillis) {
+        if (leaderBests == null) {
+            leaderBests = new HashMap<>();
+        }
+        long packed = ((long) score << 32) | (0xFFFFFFFFL - Math.min(timeMillis, 0xFFFFFFFFL));
+        Long previous = leaderBests.get(leader);
+        if (previous != null && previous >= packed) {
+            return false;
+        }
+        leaderBests.put(leader, packed);
+        changed();
+        return true;
+    }
+
+    /**
+     * Gets the names of all leaders this player has a single-leader best for.
+     * @return The leader names.
+     */
+    public synchronized Set<String> getPlayedLeaders() {
+        return leaderBests == null ? Set.of() : Set.copyOf(leaderBests.keySet());
+    }
+
+    /**
+     * Gets the best single-leader score for a leader.
+     * @param leader The leader's name.
+     * @return The best score, or 0 if the leader was never played.
+     */
+    public synchronized int getBestLeaderScore(String leader) {
+        Long packed = leaderBests == null ? null : leaderBests.get(leader);
+        return packed == null ? 0 : (int) (packed >>> 32);
+    }
+
+    /**
+     * Gets the time of the best single-leader score for a leader.
+     * @param leader The leader's name.
+     * @return The best time in milliseconds, or Long.MAX_VALUE if the leader was never played.
+     */
+    public synchronized long getBestLeaderTimeMillis(String leader) {
+        Long packed = leaderBests == null ? null : leaderBests.get(leader);
+        return packed == null ? Long.MAX_VALUE : 0xFFFFFFFFL - (packed & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Appends a finished session, with its per-level timings, to the session history.
+     * @param session The session as measured by the game.
+     */
+    public synchronized void recordHistory(SessionHistory.Session session) {
+        if (sessionHistory == null) {
+            sessionHistory = new SessionHistory();
+        }
+        sessionHistory.add(session);
+        changed();
+    }
+
+    /**
+     * Gets a percentile of this player's think time per answered level over the recent sessions.
+     * @param percentile The percentile in the range 0 to 100, for example 50 for the median.
+     * @param leader The leader to restrict to, or null for all levels.
+     * @return The think time in milliseconds, or -1 if no level was answered.
+     */
+    public synchronized long getThinkTimePercentile(double percentile, String leader) {
+        return sessionHistory == null ? -1 : sessionHistory.thinkTimePercentile(percentile, leader);
+    }
+
+    /**
+     * Gets this player's accuracy on one leader's levels for each recent session that included them.
+     * @param leader The leader's name.
+     * @return The accuracy percentage per session, oldest first.
+     */
+    public synchronized double[] getLeaderAccuracyTrend(String leader) {
+        return sessionHistory == null ? new double[0] : sessionHistory.leaderAccuracyTrend(leader);
+    }
+
     /**
      * Records a login timestamp.
      * @param timestamp The login time in milliseconds since epoch.
      */
-    public void recordLogin(long timestamp) {
+    public synchronized void recordLogin(long timestamp) {
         loginHistory.add(timestamp);
+        changed();
     }
 
     /**
@@ -69,17 +184,184 @@ public class PlayerRecord {
      * @param correctChoices The number of correct choices made.
      * @param timeMillis The total time taken in milliseconds.
      */
-    public void updateStatistics(int levelsPlayed, int correctChoices, long timeMillis) {
-        this.totalLevelsPlayed += levelsPlayed;
-        this.totalCorrectChoices += correctChoices;
-        this.totalTimeMillis += timeMillis;
+    public synchronized void updateStatistics(int levelsPlayed, int correctChoices, long timeMillis) {
+        updateStatistics(PlayerSync.localNodeId(), levelsPlayed, correctChoices, timeMillis);
+    }
+
+    /**
+     * Updates statistics after a game session played on the given node.
+     */
+    synchronized void updateStatistics(String node, int levelsPlayed, int correctChoices, long timeMillis) {
+        seedCounters(node);
+        levelsPlayedCounter.increment(node, levelsPlayed);
+        correctChoicesCounter.increment(node, correctChoices);
+        timeMillisCounter.increment(node, timeMillis);
+        refreshTotals();
+        changed();
+    }
+
+    /**
+     * Merges the state of another replica of this player into this record. Counters missing from the
+     * other replica are not merged, since the totals behind them cannot be attributed to their node.
+     * @param other The same player's record as seen by another node.
+     */
+    public synchronized void merge(PlayerRecord other) {
+        merge(PlayerSync.localNodeId(), other);
+    }
+
+    /**
+     * Merges another replica into this record, held by the given node.
+     */
+    synchronized void merge(String node, PlayerRecord other) {
+        PlayerRecord remote = other.copy();
+        if (remote.bestSingleScore > bestSingleScore
+                || (remote.bestSingleScore == bestSingleScore && remote.bestSingleTimeMillis < bestSingleTimeMillis)) {
+            bestSingleScore = remote.bestSingleScore;
+            bestSingleTimeMillis = remote.bestSingleTimeMillis;
+        }
+        if (remote.bestSequentialScore > bestSequentialScore
+                || (remote.bestSequentialScore == bestSequentialScore && remote.bestSequentialTimeMillis < bestSequentialTimeMillis)) {
+            bestSequentialScore = remote.bestSequentialScore;
+            bestSequentialTimeMillis = remote.bestSequentialTimeMillis;
+        }
+        if (remote.leaderBests != null) {
+            if (leaderBests == null) {
+                leaderBests = new HashMap<>();
+            }
+            remote.leaderBests.forEach((leader, packed) -> leaderBests.merge(leader, packed, Math::max));
+        }
+        TreeSet<Long> logins = new TreeSet<>(loginHistory);
+        if (remote.loginHistory != null) {
+            logins.addAll(remote.loginHistory);
+        }
+        loginHistory = new ArrayList<>(logins);
+        seedCounters(node);
+        levelsPlayedCounter.merge(remote.levelsPlayedCounter);
+        correctChoicesCounter.merge(remote.correctChoicesCounter);
+        timeMillisCounter.merge(remote.timeMillisCounter);
+        refreshTotals();
+        if (remote.sessionHistory != null) {
+            if (sessionHistory == null) {
+                sessionHistory = new SessionHistory();
+            }
+            sessionHistory.merge(remote.sessionHistory);
+        }
+        // Remote state must be persisted, but not published back to the sync directory.
+        markUnsaved();
+    }
+
+    /**
+     * Creates a detached deep copy of this record, safe to serialize on another thread. Totals that
+     * predate the counters are first seeded into this node's legacy slot, so copies sent to other
+     * nodes always say whose totals they are.
+     * @return The copy.
+     */
+    public synchronized PlayerRecord snapshot() {
+        return snapshot(PlayerSync.localNodeId());
+    }
+
+    /**
+     * Creates a deep copy of this record, held by the given node.
+     */
+    synchronized PlayerRecord snapshot(String node) {
+        seedCounters(node);
+        return copy();
+    }
+
+    private synchronized PlayerRecord copy() {
+        Gson gson = new Gson();
+        return gson.fromJson(gson.toJson(this), PlayerRecord.class);
+    }
+
+    /**
+     * Returns a snapshot if this record changed locally since the last call, clearing the change flag.
+     * @return The snapshot, or null if nothing changed.
+     */
+    public synchronized PlayerRecord takeSnapshotIfDirty() {
+        if (!dirty) {
+            return null;
+        }
+        dirty = false;
+        return snapshot();
+    }
+
+    /**
+     * Returns a snapshot if this record changed since it was last written to the player store,
+     * clearing the unsaved flag.
+     * @return The snapshot, or null if nothing changed.
+     */
+    public synchronized PlayerRecord takeSnapshotIfUnsaved() {
+        if (!unsaved) {
+            return null;
+        }
+        unsaved = false;
+        return snapshot();
+    }
+
+    /**
+     * Sets the callback run when this record first changes after being saved, so its owner can track
+     * records that need writing even after it stops caching them. The callback runs under this
+     * record's monitor and must not block.
+     * @param listener The callback, or null.
+     */
+    synchronized void setUnsavedListener(Consumer<PlayerRecord> listener) {
+        this.unsavedListener = listener;
+        if (unsaved && listener != null) {
+            listener.accept(this);
+        }
+    }
+
+    /**
+     * Marks a local change, to be both published to other nodes and saved.
+     */
+    private void changed() {
+        dirty = true;
+        markUnsaved();
+    }
+
+    /**
+     * Flags this record as needing a write to the player store, without publishing it to other nodes.
+     */
+    synchronized void markUnsaved() {
+        if (!unsaved) {
+            unsaved = true;
+            if (unsavedListener != null) {
+                unsavedListener.accept(this);
+            }
+        }
+    }
+
+    /**
+     * Seeds the counters from the plain totals of records written before counters existed, under the
+     * legacy slot of the node holding those totals.
+     */
+    private void seedCounters(String node) {
+        String legacyNode = LEGACY_NODE_PREFIX + node;
+        if (levelsPlayedCounter == null) {
+            levelsPlayedCounter = new GCounter();
+            levelsPlayedCounter.increment(legacyNode, totalLevelsPlayed);
+        }
+        if (correctChoicesCounter == null) {
+            correctChoicesCounter = new GCounter();
+            correctChoicesCounter.increment(legacyNode, totalCorrectChoices);
+        }
+        if (timeMillisCounter == null) {
+            timeMillisCounter = new GCounter();
+            timeMillisCounter.increment(legacyNode, totalTimeMillis);
+        }
+    }
+
+    private void refreshTotals() {
+        totalLevelsPlayed = (int) levelsPlayedCounter.value();
+        totalCorrectChoices = (int) correctChoicesCounter.value();
+        totalTimeMillis = timeMillisCounter.value();
     }
 
     /**
      * Gets the list of login timestamps.
      * @return A list of login times in milliseconds.
      */
-    public List<Long> getLoginHistory() {
+    public synchronized List<Long> getLoginHistory() {
         return new ArrayList<>(loginHistory);
     }
 
@@ -87,7 +369,7 @@ public class PlayerRecord {
      * Gets the most recent login timestamp, or null if none exist.
      * @return The last login time in milliseconds, or null.
      */
-    public Long getLastLogin() {
+    public synchronized Long getLastLogin() {
         return loginHistory.isEmpty() ? null : loginHistory.get(loginHistory.size() - 1);
     }
 
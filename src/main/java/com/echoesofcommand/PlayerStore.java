@@ -0,0 +1,278 @@
+package com.echoesofcommand;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Persistent store of player records with one small JSON file per player, so a single record can be
+ * read or written without touching the others.
+ * <p>
+ * Files live in 256 shard directories chosen by a hash of the username, and are named by the hex
+ * encoding of the UTF-8 username, which is safe on every file system, including case-insensitive
+ * ones. Names of more than 100 bytes would come close to the usual 255-byte file name
+ * limit, so they are cut to a prefix followed by the SHA-256 of the whole name; the record inside the
+ * file still holds the full username. Each write goes to a temporary file that is atomically moved into place.
+ * <p>
+ * Every write also appends the username to a change journal, so a snapshot of state derived from the
+ * store only needs the records written since it was taken. Journals are numbered by generation:
+ * {@link #rotateJournal()} starts a new one, and {@link #deleteJournalsBefore} drops those a snapshot covers.
+ */
+public class PlayerStore {
+    private static final String SUFFIX = ".json";
+    private static final String JOURNAL_PREFIX = ".journal-";
+    private static final HexFormat HEX = HexFormat.of();
+    /** Longest hex name used as is; with the temporary file's dots and suffixes it stays well under 255 bytes. */
+    private static final int MAX_HEX_NAME = 200;
+    /** Hex digits of the name kept ahead of the hash when a name is too long. */
+    private static final int HASHED_PREFIX = MAX_HEX_NAME - 64 - 1;
+
+    private final Path directory;
+    private final Gson gson = new Gson();
+    private final Object journalLock = new Object();
+    private long journalGeneration;
+
+    /**
+     * Opens a store, creating its directory if needed.
+     * @param directory The store's root directory.
+     * @throws IllegalStateException If the directory cannot be created.
+     */
+    public PlayerStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create player store " + directory + ": " + e.getMessage(), e);
+        }
+        this.journalGeneration = Math.max(1, journalGenerations().stream().mapToLong(Long::longValue).max().orElse(1));
+    }
+
+    /**
+     * Gets the store's root directory.
+     * @return The directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Reads one player's record.
+     * @param username The player's username.
+     * @return The record, or null if the player is not stored.
+     * @throws IllegalStateException If the record exists but cannot be read.
+     */
+    public PlayerRecord load(String username) {
+        Path file = fileFor(username);
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, PlayerRecord.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | JsonParseException e) {
+            throw new IllegalStateException("Cannot read player record " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks whether a player is stored.
+     * @param username The player's username.
+     * @return True if the player's file exists.
+     */
+    public boolean contains(String username) {
+        return Files.exists(fileFor(username));
+    }
+
+    /**
+     * Writes one player's record, replacing any previous version.
+     * @param record A record that is not modified concurrently, such as a snapshot.
+     * @throws UncheckedIOException If the record cannot be written.
+     */
+    public void write(PlayerRecord record) {
+        Path file = fileFor(record.getUsername());
+        Path temp = file.resolveSibling("." + file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(record, PlayerRecord.class, writer);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write player record " + file + ": " + e.getMessage(), e);
+        }
+        synchronized (journalLock) {
+            Path journal = directory.resolve(JOURNAL_PREFIX + journalGeneration);
+            try {
+                Files.writeString(journal, HEX.formatHex(record.getUsername().getBytes(StandardCharsets.UTF_8)) + "\n",
+                        StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot append to change journal " + journal + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Starts a new change journal; writes from now on are recorded in it.
+     * @return The new journal's generation.
+     */
+    public long rotateJournal() {
+        synchronized (journalLock) {
+            return ++journalGeneration;
+        }
+    }
+
+    /**
+     * Gets the generation of the journal writes are currently recorded in.
+     * @return The current generation.
+     */
+    public long journalGeneration() {
+        synchronized (journalLock) {
+            return journalGeneration;
+        }
+    }
+
+    /**
+     * Passes every username recorded in the journals from a generation onwards, oldest first.
+     * A username appears once per write, so callers should treat repeats as harmless.
+     * @param fromGeneration The first generation to read.
+     * @param action Receives each username.
+     * @return The number of usernames read.
+     * @throws UncheckedIOException If a journal cannot be read.
+     */
+    public long replayJournals(long fromGeneration, Consumer<String> action) {
+        long count = 0;
+        for (long generation : journalGenerations()) {
+            if (generation < fromGeneration) {
+                continue;
+            }
+            Path journal = directory.resolve(JOURNAL_PREFIX + generation);
+            try (Stream<String> lines = Files.lines(journal, StandardCharsets.UTF_8)) {
+                for (String line : (Iterable<String>) lines::iterator) {
+                    // A line cut short by a crash is not valid hex and is skipped.
+                    if (!line.isEmpty() && line.length() % 2 == 0) {
+                        try {
+                            action.accept(new String(HEX.parseHex(line), StandardCharsets.UTF_8));
+                            count++;
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Warning: Skipping damaged journal line in " + journal);
+                        }
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Deleted by a concurrent checkpoint.
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read change journal " + journal + ": " + e.getMessage(), e);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Deletes the journals older than a generation, once a snapshot covers them.
+     * @param generation The oldest generation to keep.
+     */
+    public void deleteJournalsBefore(long generation) {
+        for (long old : journalGenerations()) {
+            if (old < generation) {
+                try {
+                    Files.deleteIfExists(directory.resolve(JOURNAL_PREFIX + old));
+                } catch (IOException e) {
+                    System.err.println("Warning: Could not delete change journal " + old + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams every stored record through a callback, one at a time, so memory stays flat however many
+     * players are stored. Unreadable records are reported and skipped.
+     * @param action Receives each record.
+     * @return The number of records visited.
+     * @throws UncheckedIOException If the store cannot be listed.
+     */
+    public long forEach(Consumer<PlayerRecord> action) {
+        long count = 0;
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(PlayerStore::isRecordFile)::iterator) {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    PlayerRecord record = gson.fromJson(reader, PlayerRecord.class);
+                    if (record != null && record.getUsername() != null) {
+                        action.accept(record);
+                        count++;
+                    }
+                } catch (NoSuchFileException e) {
+                    // Replaced while listing; the newer version is picked up under its own name.
+                } catch (IOException | JsonParseException e) {
+                    System.err.println("Warning: Skipping unreadable player record " + file + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list player store " + directory + ": " + e.getMessage(), e);
+        }
+        return count;
+    }
+
+    private List<Long> journalGenerations() {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(JOURNAL_PREFIX)) {
+                    try {
+                        generations.add(Long.parseLong(name.substring(JOURNAL_PREFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // Not a journal.
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list player store " + directory + ": " + e.getMessage(), e);
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    private Path fileFor(String username) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        String shard = HEX.toHexDigits((byte) (username.hashCode() ^ (username.hashCode() >>> 16)));
+        String hex = HEX.formatHex(name);
+        if (hex.length() > MAX_HEX_NAME) {
+            hex = hex.substring(0, HASHED_PREFIX) + "-" + HEX.formatHex(sha256(name));
+        }
+        return directory.resolve(shard).resolve(hex + SUFFIX);
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean isRecordFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(SUFFIX) && !name.startsWith(".") && Files.isRegularFile(file);
+    }
+}
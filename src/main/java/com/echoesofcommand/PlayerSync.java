@@ -0,0 +1,314 @@
+package com.echoesofcommand;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Synchronizes player records between game nodes through a shared directory, without locks or a central store.
+ * <p>
+ * Every node periodically writes the records it changed as a delta file named
+ * {@code <node>.<sequence>.delta.json} and merges the deltas written by all other nodes. Because
+ * {@link PlayerRecord#merge} is commutative, associative and idempotent, files can be read in any order
+ * and more than once. After a number of deltas a node writes one full-state delta and deletes its
+ * older files; the full state subsumes them, so a peer that missed them loses nothing.
+ * <p>
+ * Each node needs its own id, since the id is its slot in every grow-only counter. Without
+ * {@code -Deoc.node.id}, a node that syncs generates a random id once and keeps it in {@code node.id}
+ * in the working directory; a node that does not sync uses a random id for the run and writes
+ * nothing. A node holds a lock file named after its id in the shared directory while it runs, so a
+ * second process with the same id refuses to sync instead of silently sharing the slot. Run several
+ * local processes from different working directories, or with distinct {@code -Deoc.node.id} values,
+ * against the same {@code -Deoc.sync.dir} to test convergence.
+ */
+public class PlayerSync {
+    /** System property naming this node; must be unique per process sharing a sync directory. */
+    public static final String NODE_ID_PROPERTY = "eoc.node.id";
+    /** System property pointing at the shared sync directory; sync is off when unset. */
+    public static final String SYNC_DIR_PROPERTY = "eoc.sync.dir";
+    private static final String DELTA_SUFFIX = ".delta.json";
+    private static final int DELTAS_PER_COMPACTION = 20;
+    private static final String NODE_ID_FILE = "node.id";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static volatile String nodeId;
+
+    private final PlayerManager players;
+    private final Path directory;
+    private final long intervalSeconds;
+    private final Map<String, Long> lastSeen = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "player-sync");
+        t.setDaemon(true);
+        return t;
+    });
+    private long sequence;
+    private int deltasSinceCompaction;
+    private FileChannel lockChannel;
+
+    /**
+     * Creates a sync agent for the given shared directory.
+     * @param players The local player manager.
+     * @param directory The directory shared by all nodes.
+     * @param intervalSeconds The period between sync rounds.
+     */
+    public PlayerSync(PlayerManager players, Path directory, long intervalSeconds) {
+        this.players = players;
+        this.directory = directory;
+        this.intervalSeconds = intervalSeconds;
+        this.sequence = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the identifier of this node, used as its slot in every grow-only counter.
+     * @return The node identifier.
+     */
+    public static String localNodeId() {
+        String id = nodeId;
+        if (id == null) {
+            synchronized (PlayerSync.class) {
+                if (nodeId == null) {
+                    nodeId = resolveNodeId();
+                }
+                id = nodeId;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Creates the shared directory if needed, claims this node's id in it, runs one sync round, and
+     * schedules periodic rounds.
+     * @throws IllegalStateException If the shared directory cannot be created, or another running
+     *                               process already syncs with the same node id.
+     */
+    public void start() {
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(localNodeId() + LOCK_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                lockChannel.close();
+                throw new IllegalStateException("Node id " + localNodeId() + " is already syncing with " + directory
+                        + "; give each process its own -D" + NODE_ID_PROPERTY);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot use sync directory " + directory + ": " + e.getMessage(), e);
+        }
+        syncOnce();
+        scheduler.scheduleWithFixedDelay(this::syncOnce, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops periodic sync and publishes any remaining local changes.
+     */
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(intervalSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        syncOnce();
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not release the sync lock: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one sync round: publish local changes, then merge every unseen peer delta.
+     */
+    public synchronized void syncOnce() {
+        try {
+            publish();
+            if (mergePeers()) {
+                players.save();
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Player sync round failed: " + e.getMessage());
+        }
+    }
+
+    private void publish() throws IOException {
+        boolean compact = deltasSinceCompaction >= DELTAS_PER_COMPACTION;
+        Map<String, PlayerRecord> changes = compact ? null : players.collectChanges();
+        if (changes != null && changes.isEmpty()) {
+            return;
+        }
+        long seq = ++sequence;
+        Path target = directory.resolve(localNodeId() + "." + seq + DELTA_SUFFIX);
+        Path temp = directory.resolve("." + localNodeId() + "." + seq + ".tmp");
+        long written = 0;
+        try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+            Gson gson = new Gson();
+            writer.beginObject();
+            if (changes != null) {
+                for (Map.Entry<String, PlayerRecord> entry : changes.entrySet()) {
+                    writer.name(entry.getKey());
+                    gson.toJson(entry.getValue(), PlayerRecord.class, writer);
+                }
+                written = changes.size();
+            } else {
+                // The full state is streamed from the player store, one record at a time.
+                long[] count = new long[1];
+                players.forEachSnapshot(record -> {
+                    try {
+                        writer.name(record.getUsername());
+                        gson.toJson(record, PlayerRecord.class, writer);
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                written = count[0];
+            }
+            writer.endObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (written == 0) {
+            Files.deleteIfExists(temp);
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (compact) {
+            deleteOwnDeltasBefore(seq);
+            deltasSinceCompaction = 0;
+        } else {
+            deltasSinceCompaction++;
+        }
+    }
+
+    private boolean mergePeers() throws IOException {
+        Type type = new TypeToken<Map<String, PlayerRecord>>(){}.getType();
+        boolean merged = false;
+        for (Path file : listDeltas()) {
+            String[] parts = parseName(file);
+            if (parts == null || parts[0].equals(localNodeId())) {
+                continue;
+            }
+            long seq = Long.parseLong(parts[1]);
+            if (seq <= lastSeen.getOrDefault(parts[0], Long.MIN_VALUE)) {
+                continue;
+            }
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                Map<String, PlayerRecord> remote = new Gson().fromJson(reader, type);
+                if (remote != null) {
+                    players.mergeRemote(remote);
+                    merged = true;
+                }
+            } catch (NoSuchFileException e) {
+                // Compacted away by its owner; the owner's full-state delta carries the same data.
+                continue;
+            }
+            lastSeen.put(parts[0], seq);
+        }
+        return merged;
+    }
+
+    private void deleteOwnDeltasBefore(long seq) throws IOException {
+        for (Path file : listDeltas()) {
+            String[] parts = parseName(file);
+            if (parts != null && parts[0].equals(localNodeId()) && Long.parseLong(parts[1]) < seq) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Lists delta files ordered by sequence so each peer's files are merged oldest first.
+     */
+    private List<Path> listDeltas() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> parseName(f) != null)
+                    .sorted((a, b) -> Long.compare(Long.parseLong(parseName(a)[1]), Long.parseLong(parseName(b)[1])))
+                    .toList();
+        }
+    }
+
+    /**
+     * Splits {@code <node>.<sequence>.delta.json} into node and sequence, or returns null for other files.
+     */
+    private static String[] parseName(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(DELTA_SUFFIX) || name.startsWith(".")) {
+            return null;
+        }
+        String stem = name.substring(0, name.length() - DELTA_SUFFIX.length());
+        int dot = stem.lastIndexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String seq = stem.substring(dot + 1);
+        if (seq.isEmpty() || !seq.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return new String[]{stem.substring(0, dot), seq};
+    }
+
+    /**
+     * Uses the configured id; else, when syncing, the id kept in the working directory, generating and
+     * keeping a random one the first time; else a random id for this run. A host name is not used, since
+     * several processes can share a host.
+     */
+    private static String resolveNodeId() {
+        String configured = System.getProperty(NODE_ID_PROPERTY);
+        if (configured != null && !configured.isBlank()) {
+            return configured.trim();
+        }
+        if (System.getProperty(SYNC_DIR_PROPERTY) == null) {
+            return UUID.randomUUID().toString();
+        }
+        Path file = Path.of(NODE_ID_FILE);
+        try {
+            if (Files.exists(file)) {
+                String stored = Files.readString(file, StandardCharsets.UTF_8).trim();
+                if (!stored.isEmpty()) {
+                    return stored;
+                }
+            }
+            String generated = UUID.randomUUID().toString();
+            Files.writeString(file, generated + System.lineSeparator(), StandardCharsets.UTF_8);
+            return generated;
+        } catch (IOException e) {
+            String generated = UUID.randomUUID().toString();
+            System.err.println("Warning: Could not keep node id in " + NODE_ID_FILE + ", using " + generated
+                    + " for this run: " + e.getMessage());
+            return generated;
+        }
+    }
+}
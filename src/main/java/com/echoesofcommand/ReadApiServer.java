@@ -0,0 +1,339 @@
+package com.echoesofcommand;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Read-only HTTP/JSON API over the leaderboards, player statistics and archive, served on virtual threads.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *     <li>{@code GET /api/leaderboard} — all-time board; {@code ?window=daily|weekly} or {@code ?leader=Name} for the others</li>
+ *     <li>{@code GET /api/players/{username}/stats} — totals, accuracy, average time per level and median/p90 think time</li>
+ *     <li>{@code GET /api/usernames?prefix=al} — up to {@code limit} (default 20) usernames starting with a prefix, ignoring case</li>
+ *     <li>{@code GET /api/archive/search?q=query} — a page of up to {@code limit} (default 20) matching archive entries,
+ *     oldest first, and the {@code next} position to pass as {@code from} for the following page, or -1 after the
+ *     last page; see {@link ArchiveQuery} for the query syntax</li>
+ *     <li>{@code GET /api/archive/stats} — levels played, accuracy and skip rate per leader</li>
+ *     <li>{@code GET /api/sessions} — running and queued sessions, when a scheduler is attached; never cached</li>
+ *     <li>{@code GET /api/cache} — player record cache hits, misses and evictions; never cached</li>
+ *     <li>{@code GET /api/metrics} — answered, correct and skipped levels and completed sessions, when
+ *     gameplay metrics are attached; never cached</li>
+ * </ul>
+ * Every response body is cached under its path and query together with the data version it was built
+ * from, and is served with that version as its ETag. The in-memory versions restart with the process, so
+ * the ETag also carries an id chosen at start-up. A poll is answered from the cache, or with
+ * {@code 304 Not Modified}, until the underlying data actually changes.
+ */
+public class ReadApiServer {
+    private static final int MAX_CACHED_RESPONSES = 1024;
+    private static final int LEADERBOARD_LIMIT = 100;
+    private static final int MAX_USERNAMES = 100;
+    private static final int MAX_ARCHIVE_PAGE = 100;
+
+    private final PlayerManager players;
+    private final ArchiveManager archive;
+    private final SessionScheduler scheduler;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Gson gson = new Gson();
+    private final String bootId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final Map<String, CachedResponse> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > MAX_CACHED_RESPONSES;
+        }
+    };
+
+    private record CachedResponse(String version, int status, byte[] body) {
+    }
+
+    private record LeaderboardRow(String username, int bestScore, long bestTimeMillis,
+                                  int bestSequentialScore, long bestSequentialTimeMillis) {
+    }
+
+    private record PlayerStats(String username, int totalLevelsPlayed, int totalCorrectChoices,
+                               double accuracy, double averageTimePerLevel,
+                               long medianThinkMillis, long p90ThinkMillis) {
+    }
+
+    private record ErrorBody(String error) {
+    }
+
+    private record ArchivePage(List<ArchiveManager.ResolvedEntry> entries, int next) {
+    }
+
+    /**
+     * Creates the server bound to the given port; call {@link #start()} to begin serving.
+     * @param port The TCP port, or 0 for an ephemeral port.
+     * @param players The player manager to read from.
+     * @param archive The archive manager to read from.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ReadApiServer(int port, PlayerManager players, ArchiveManager archive) throws IOException {
+        this(port, players, archive, null, null);
+    }
+
+    /**
+     * Creates the server bound to the given port, also reporting session admission statistics.
+     * @param port The TCP port, or 0 for an ephemeral port.
+     * @param players The player manager to read from.
+     * @param archive The archive manager to read from.
+     * @param scheduler The session scheduler to report on, or null.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ReadApiServer(int port, PlayerManager players, ArchiveManager archive, SessionScheduler scheduler) throws IOException {
+        this(port, players, archive, scheduler, null);
+    }
+
+    /**
+     * Creates the server bound to the given port, also reporting session admission statistics and
+     * gameplay metrics.
+     * @param port The TCP port, or 0 for an ephemeral port.
+     * @param players The player manager to read from.
+     * @param archive The archive manager to read from.
+     * @param scheduler The session scheduler to report on, or null.
+     * @param metrics The gameplay metrics to report, or null.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ReadApiServer(int port, PlayerManager players, ArchiveManager archive, SessionScheduler scheduler,
+                         GameMetrics metrics) throws IOException {
+        this.players = players;
+        this.archive = archive;
+        this.scheduler = scheduler;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/api/leaderboard", this::handleLeaderboard);
+        this.server.createContext("/api/players/", this::handlePlayer);
+        this.server.createContext("/api/usernames", this::handleUsernames);
+        this.server.createContext("/api/archive/search", this::handleArchiveSearch);
+        this.server.createContext("/api/archive/stats", exchange ->
+                serve(exchange, () -> Long.toString(archive.version()), () -> ok(archive.leaderActivity(0, Long.MAX_VALUE))));
+        this.server.createContext("/api/cache", exchange -> serveLive(exchange, players::cacheStats));
+        if (scheduler != null) {
+            this.server.createContext("/api/sessions", exchange -> serveLive(exchange, scheduler::stats));
+        }
+        if (metrics != null) {
+            this.server.createContext("/api/metrics", exchange -> serveLive(exchange, metrics::counts));
+        }
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the server, letting in-flight requests finish for up to one second.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the port the server is bound to.
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleLeaderboard(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String leader = query.get("leader");
+        String windowName = query.get("window");
+        if (leader != null) {
+            serve(exchange, () -> Long.toString(players.version()), () -> ok(players.leaderboard(leader, LEADERBOARD_LIMIT)));
+            return;
+        }
+        if (windowName != null) {
+            LeaderboardWindow window = null;
+            for (LeaderboardWindow w : LeaderboardWindow.values()) {
+                if (w.name().equalsIgnoreCase(windowName)) {
+                    window = w;
+                }
+            }
+            if (window == null) {
+                try (exchange) {
+                    send(exchange, new CachedResponse(null, 400, json(new ErrorBody("Unknown window: " + windowName))), null);
+                }
+                return;
+            }
+            LeaderboardWindow selected = window;
+            // A window also changes when it slides into a new bucket, so the bucket index is part of its version.
+            serve(exchange, () -> players.version() + "-" + System.currentTimeMillis() / selected.getBucketMillis(), () -> {
+                List<Standing> standings = players.leaderboard(selected);
+                return ok(standings.subList(0, Math.min(LEADERBOARD_LIMIT, standings.size())));
+            });
+            return;
+        }
+        serve(exchange, () -> Long.toString(players.version()), () -> ok(players.leaderboard().stream()
+                .limit(LEADERBOARD_LIMIT)
+                .map(r -> new LeaderboardRow(r.getUsername(), r.getBestScore(), r.getBestTimeMillis(),
+                        r.getBestSequentialScore(), r.getBestSequentialTimeMillis()))
+                .toList()));
+    }
+
+    private void handlePlayer(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String prefix = "/api/players/";
+        String suffix = "/stats";
+        if (!path.startsWith(prefix) || !path.endsWith(suffix) || path.length() <= prefix.length() + suffix.length()) {
+            try (exchange) {
+                send(exchange, new CachedResponse(null, 404, json(new ErrorBody("Not found"))), null);
+            }
+            return;
+        }
+        String username = URLDecoder.decode(path.substring(prefix.length(), path.length() - suffix.length()), StandardCharsets.UTF_8);
+        serve(exchange, () -> Long.toString(players.version()), () -> {
+            PlayerRecord record = players.find(username);
+            if (record == null) {
+                return new CachedResponse(null, 404, json(new ErrorBody("Unknown player: " + username)));
+            }
+            return ok(new PlayerStats(record.getUsername(), record.getTotalLevelsPlayed(), record.getTotalCorrectChoices(),
+                    record.getAccuracy(), record.getAverageTimePerLevel(),
+                    record.getThinkTimePercentile(50, null), record.getThinkTimePercentile(90, null)));
+        });
+    }
+
+    private void handleUsernames(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String prefix = query.getOrDefault("prefix", "");
+        int limit;
+        try {
+            limit = Math.min(MAX_USERNAMES, Math.max(1, Integer.parseInt(query.getOrDefault("limit", "20"))));
+        } catch (NumberFormatException e) {
+            try (exchange) {
+                send(exchange, new CachedResponse(null, 400, json(new ErrorBody("Invalid limit: " + query.get("limit")))), null);
+            }
+            return;
+        }
+        serve(exchange, () -> Long.toString(players.version()), () -> ok(players.suggestUsernames(prefix, limit)));
+    }
+
+    private void handleArchiveSearch(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        int from;
+        int limit;
+        ArchiveQuery query;
+        try {
+            from = Math.max(0, Integer.parseInt(params.getOrDefault("from", "0")));
+            limit = Math.min(MAX_ARCHIVE_PAGE, Math.max(1, Integer.parseInt(params.getOrDefault("limit", "20"))));
+            query = ArchiveQuery.parse(params.getOrDefault("q", ""));
+        } catch (IllegalArgumentException e) {
+            try (exchange) {
+                send(exchange, new CachedResponse(null, 400, json(new ErrorBody("Invalid search: " + e.getMessage()))), null);
+            }
+            return;
+        }
+        serve(exchange, () -> Long.toString(archive.version()), () -> {
+            ArchiveCursor cursor;
+            try {
+                cursor = archive.query(query, from, limit);
+            } catch (IllegalArgumentException e) {
+                return new CachedResponse(null, 400, json(new ErrorBody("Invalid search: " + e.getMessage())));
+            }
+            List<ArchiveManager.ResolvedEntry> entries = cursor.next();
+            return ok(new ArchivePage(entries, cursor.hasNext() ? cursor.position() : -1));
+        });
+    }
+
+    /**
+     * Serves a GET of fast-changing operational data, bypassing the version cache.
+     */
+    private void serveLive(HttpExchange exchange, Supplier<Object> body) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                send(exchange, new CachedResponse(null, 405, json(new ErrorBody("Method not allowed"))), null);
+                return;
+            }
+            send(exchange, ok(body.get()), null);
+        }
+    }
+
+    /**
+     * Serves a GET from the cache when the cached body was built at the current data version,
+     * otherwise builds and caches a fresh body.
+     */
+    private void serve(HttpExchange exchange, Supplier<String> version, Supplier<CachedResponse> builder) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                send(exchange, new CachedResponse(null, 405, json(new ErrorBody("Method not allowed"))), null);
+                return;
+            }
+            String key = exchange.getRequestURI().toString();
+            String current = version.get();
+            CachedResponse response;
+            synchronized (cache) {
+                response = cache.get(key);
+            }
+            if (response == null || !response.version().equals(current)) {
+                CachedResponse built = builder.get();
+                response = new CachedResponse(current, built.status(), built.body());
+                synchronized (cache) {
+                    cache.put(key, response);
+                }
+            }
+            String etag = "\"" + bootId + "-" + response.version() + "\"";
+            if (response.status() == 200 && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            send(exchange, response, response.status() == 200 ? etag : null);
+        }
+    }
+
+    private void send(HttpExchange exchange, CachedResponse response, String etag) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        }
+        exchange.sendResponseHeaders(response.status(), response.body().length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response.body());
+        }
+    }
+
+    private CachedResponse ok(Object body) {
+        return new CachedResponse(null, 200, json(body));
+    }
+
+    private byte[] json(Object body) {
+        return gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.putIfAbsent(name, value);
+        }
+        return params;
+    }
+}
@@ -0,0 +1,203 @@
+package com.echoesofcommand;
+
+import java.util.List;
+
+/**
+ * Headless {@link GameUI} that replays a fixed player, mode, leader and list of answers and records the
+ * round outcome. Answers other than 1 or 2, and levels beyond the end of the list, count as skipped.
+ */
+public class ScriptedUI implements GameUI {
+    private final String username;
+    private final int mode;
+    private final String leader;
+    private final int[] answers;
+    private int next;
+    private int skipped;
+    private int finalScore;
+    private int totalLevels;
+    private long timeMillis;
+    private boolean serverBusy;
+
+    /**
+     * Creates a UI that only answers levels in order, for sessions whose player, mode and leader are
+     * chosen by the caller; prompting for any of those fails.
+     * @param answers The answers, 1 or 2 per level.
+     */
+    public ScriptedUI(int[] answers) {
+        this(null, 0, null, answers);
+    }
+
+    /**
+     * Creates a UI that logs in, picks a mode and leader, and answers levels in order.
+     * @param username The username to give, or null if it is never asked for.
+     * @param mode The play mode to pick, as numbered by {@link #promptPlayMode()}, or 0 if it is never asked for.
+     * @param leader The name of the leader to pick in single-leader mode, or null.
+     * @param answers The answers, 1 or 2 per level.
+     */
+    public ScriptedUI(String username, int mode, String leader, int[] answers) {
+        this.username = username;
+        this.mode = mode;
+        this.leader = leader;
+        this.answers = answers;
+    }
+
+    @Override
+    public void displayWelcomeMessage() {
+    }
+
+    @Override
+    public String promptUsername() {
+        if (username == null) {
+            throw new IllegalStateException("No username was scripted");
+        }
+        return username;
+    }
+
+    @Override
+    public void searchDisabledNotice() {
+    }
+
+    @Override
+    public int promptPlayMode() {
+        if (mode == 0) {
+            throw new IllegalStateException("No play mode was scripted");
+        }
+        return mode;
+    }
+
+    @Override
+    public ContentIndex.Entry selectLeader(List<ContentIndex.Entry> leaders) {
+        for (ContentIndex.Entry entry : leaders) {
+            if (entry.name().equals(leader)) {
+                return entry;
+            }
+        }
+        throw new IllegalStateException("Scripted leader not offered: " + leader);
+    }
+
+    @Override
+    public void displayLeaderSequence(String leaderName, int index, int total) {
+    }
+
+    @Override
+    public void displayLevel(Level level) {
+    }
+
+    @Override
+    public int getPlayerChoice() {
+        return next < answers.length ? answers[next++] : 0;
+    }
+
+    @Override
+    public void displayTimeoutSkip() {
+        skipped++;
+    }
+
+    @Override
+    public void displayServerBusy() {
+        serverBusy = true;
+    }
+
+    @Override
+    public void displayResult(boolean correct, String summary) {
+    }
+
+    @Override
+    public void showProgress(int score, int total) {
+    }
+
+    @Override
+    public void displayEndOfRound(int score, int total, long timeMillis) {
+        this.finalScore = score;
+        this.totalLevels = total;
+        this.timeMillis = timeMillis;
+    }
+
+    @Override
+    public boolean promptArchiveSearch() {
+        return false;
+    }
+
+    @Override
+    public String promptSearchKeyword() {
+        return "";
+    }
+
+    @Override
+    public boolean promptMoreResults() {
+        return false;
+    }
+
+    @Override
+    public void displayContentSearchResults(String query, List<ContentSearchIndex.Hit> hits) {
+    }
+
+    @Override
+    public int promptPostRoundOption() {
+        return 4;
+    }
+
+    @Override
+    public void displayLeaderboard(List<PlayerRecord> list) {
+    }
+
+    @Override
+    public void displayLeaderLeaderboard(String leader, List<Standing> standings) {
+    }
+
+    @Override
+    public void displayWindowedLeaderboard(LeaderboardWindow window, List<Standing> standings) {
+    }
+
+    @Override
+    public void displayTournamentStandings(List<Standing> top, int rank, int participants) {
+    }
+
+    @Override
+    public void displayGoodbyeMessage() {
+    }
+
+    @Override
+    public void displayPlayerStats(PlayerRecord player) {
+    }
+
+    /**
+     * Gets the number of skipped levels.
+     * @return The skipped count.
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Gets the final score reported at the end of the round.
+     * @return The score.
+     */
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    /**
+     * Gets the number of levels in the round.
+     * @return The level count.
+     */
+    public int getTotalLevels() {
+        return totalLevels;
+    }
+
+    /**
+     * Gets the round duration reported at the end of the round.
+     * @return The time in milliseconds.
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * Gets whether the session was shed because the server was busy.
+     * @return True if the session never ran.
+     */
+    public boolean wasServerBusy() {
+        return serverBusy;
+    }
+}
@@ -0,0 +1,438 @@
+package com.echoesofcommand;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A player's recent sessions stored column-wise in primitive arrays, so percentile and trend queries
+ * scan a few arrays instead of materializing one object per session or per level.
+ * <p>
+ * Session columns hold the start time, score, duration, mode and the offset of the session's first
+ * level; level columns hold the leader (an index into a small name table), level number, think time
+ * and outcome. Level numbers are stored in 16 bits, which holds every {@linkplain Level#isValidNumber valid}
+ * level number. Only the newest {@value #MAX_SESSIONS} sessions are kept. Merging takes the union of
+ * both histories and keeps the newest sessions, so replicas converge like the rest of {@link PlayerRecord}.
+ */
+@JsonAdapter(SessionHistory.Adapter.class)
+public class SessionHistory {
+    /** Mode of a session played against one leader. */
+    public static final byte MODE_SINGLE = 0;
+    /** Mode of a session played through every leader in order. */
+    public static final byte MODE_SEQUENTIAL = 1;
+    /** Mode of a session played through every leader's levels shuffled. */
+    public static final byte MODE_RANDOMIZED = 2;
+    /** Mode of a live tournament session played against other players. */
+    public static final byte MODE_TOURNAMENT = 3;
+    /** Outcome of a level answered incorrectly. */
+    public static final byte INCORRECT = 0;
+    /** Outcome of a level answered with the historical choice. */
+    public static final byte CORRECT = 1;
+    /** Outcome of a level skipped without an answer. */
+    public static final byte SKIPPED = 2;
+
+    static final int MAX_SESSIONS = 500;
+
+    private final List<String> leaders = new ArrayList<>();
+    private final Map<String, Integer> leaderIds = new HashMap<>();
+
+    private int sessionCount;
+    private long[] startedAt = new long[8];
+    private int[] score = new int[8];
+    private int[] durationMillis = new int[8];
+    private byte[] mode = new byte[8];
+    private int[] firstLevel = new int[8];
+
+    private int levelCount;
+    private short[] levelLeader = new short[32];
+    private short[] levelNumber = new short[32];
+    private int[] thinkMillis = new int[32];
+    private byte[] outcome = new byte[32];
+
+    /**
+     * One finished session as measured by {@link Game}.
+     * @param startedAt The start time in milliseconds since epoch.
+     * @param score The final score.
+     * @param durationMillis The session duration in milliseconds.
+     * @param mode One of the {@code MODE_} constants.
+     * @param leaders The leader of each level, in play order.
+     * @param levelNumbers The number of each level, in play order.
+     * @param thinkMillis The time from display to answer of each level.
+     * @param outcomes The outcome of each level, one of {@link #CORRECT}, {@link #INCORRECT}, {@link #SKIPPED}.
+     */
+    public record Session(long startedAt, int score, long durationMillis, byte mode, String[] leaders,
+                          int[] levelNumbers, int[] thinkMillis, byte[] outcomes) {
+    }
+
+    /**
+     * Appends a session, dropping the oldest sessions beyond the limit.
+     * @param session The session to append.
+     * @throws IllegalArgumentException If a level number is not a {@linkplain Level#isValidNumber valid} one.
+     */
+    public void add(Session session) {
+        for (int number : session.levelNumbers()) {
+            if (!Level.isValidNumber(number)) {
+                throw new IllegalArgumentException("Level number " + number + " is outside 0.." + Level.MAX_NUMBER);
+            }
+        }
+        int index = insertionPoint(session.startedAt());
+        if (index < sessionCount) {
+            // Out-of-order start times only happen with clock changes; rebuild to keep the columns sorted.
+            List<Session> all = sessions();
+            all.add(index, session);
+            rebuild(all);
+            return;
+        }
+        append(session);
+        if (sessionCount > MAX_SESSIONS) {
+            dropOldest(sessionCount - MAX_SESSIONS);
+        }
+    }
+
+    /**
+     * Merges another replica's history into this one.
+     * @param other The other history.
+     */
+    public void merge(SessionHistory other) {
+        if (other == null || other.sessionCount == 0) {
+            return;
+        }
+        List<Session> all = sessions();
+        all.addAll(other.sessions());
+        all.sort(SessionHistory::compare);
+        List<Session> unique = new ArrayList<>(all.size());
+        for (Session session : all) {
+            if (unique.isEmpty() || compare(unique.get(unique.size() - 1), session) != 0) {
+                unique.add(session);
+            }
+        }
+        rebuild(unique.subList(Math.max(0, unique.size() - MAX_SESSIONS), unique.size()));
+    }
+
+    /**
+     * Gets the number of stored sessions.
+     * @return The session count.
+     */
+    public int size() {
+        return sessionCount;
+    }
+
+    /**
+     * Gets a percentile of the think time over every answered level, or over one leader's levels.
+     * @param percentile The percentile in the range 0 to 100, for example 50 for the median.
+     * @param leader The leader to restrict to, or null for all levels.
+     * @return The think time in milliseconds, or -1 if no level was answered.
+     */
+    public long thinkTimePercentile(double percentile, String leader) {
+        int leaderId = leader == null ? -1 : leaderIds.getOrDefault(leader, -2);
+        if (leaderId == -2) {
+            return -1;
+        }
+        int[] times = new int[levelCount];
+        int n = 0;
+        for (int i = 0; i < levelCount; i++) {
+            if (outcome[i] != SKIPPED && (leaderId < 0 || levelLeader[i] == leaderId)) {
+                times[n++] = thinkMillis[i];
+            }
+        }
+        if (n == 0) {
+            return -1;
+        }
+        Arrays.sort(times, 0, n);
+        int rank = (int) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * n);
+        return times[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Gets the accuracy on one leader's levels for each session that included them, oldest first.
+     * @param leader The leader's name.
+     * @return The accuracy percentage per session, counting skipped levels as incorrect.
+     */
+    public double[] leaderAccuracyTrend(String leader) {
+        Integer leaderId = leaderIds.get(leader);
+        if (leaderId == null) {
+            return new double[0];
+        }
+        double[] trend = new double[sessionCount];
+        int n = 0;
+        for (int s = 0; s < sessionCount; s++) {
+            int played = 0;
+            int correct = 0;
+            for (int i = firstLevel[s], end = levelEnd(s); i < end; i++) {
+                if (levelLeader[i] == leaderId) {
+                    played++;
+                    if (outcome[i] == CORRECT) {
+                        correct++;
+                    }
+                }
+            }
+            if (played > 0) {
+                trend[n++] = 100.0 * correct / played;
+            }
+        }
+        return Arrays.copyOf(trend, n);
+    }
+
+    /**
+     * Gets the stored sessions as objects, oldest first.
+     * @return The sessions.
+     */
+    public List<Session> sessions() {
+        List<Session> result = new ArrayList<>(sessionCount);
+        for (int s = 0; s < sessionCount; s++) {
+            int from = firstLevel[s];
+            int count = levelEnd(s) - from;
+            String[] names = new String[count];
+            int[] numbers = new int[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = leaders.get(levelLeader[from + i]);
+                numbers[i] = levelNumber[from + i];
+            }
+            result.add(new Session(startedAt[s], score[s], durationMillis[s], mode[s], names, numbers,
+                    Arrays.copyOfRange(thinkMillis, from, from + count), Arrays.copyOfRange(outcome, from, from + count)));
+        }
+        return result;
+    }
+
+    private int levelEnd(int session) {
+        return session + 1 < sessionCount ? firstLevel[session + 1] : levelCount;
+    }
+
+    private int insertionPoint(long start) {
+        int index = sessionCount;
+        while (index > 0 && startedAt[index - 1] > start) {
+            index--;
+        }
+        return index;
+    }
+
+    private void append(Session session) {
+        int levels = session.thinkMillis().length;
+        if (sessionCount == startedAt.length) {
+            int capacity = sessionCount * 2;
+            startedAt = Arrays.copyOf(startedAt, capacity);
+            score = Arrays.copyOf(score, capacity);
+            durationMillis = Arrays.copyOf(durationMillis, capacity);
+            mode = Arrays.copyOf(mode, capacity);
+            firstLevel = Arrays.copyOf(firstLevel, capacity);
+        }
+        if (levelCount + levels > thinkMillis.length) {
+            int capacity = Math.max(thinkMillis.length * 2, levelCount + levels);
+            levelLeader = Arrays.copyOf(levelLeader, capacity);
+            levelNumber = Arrays.copyOf(levelNumber, capacity);
+            thinkMillis = Arrays.copyOf(thinkMillis, capacity);
+            outcome = Arrays.copyOf(outcome, capacity);
+        }
+        startedAt[sessionCount] = session.startedAt();
+        score[sessionCount] = session.score();
+        durationMillis[sessionCount] = (int) Math.min(Integer.MAX_VALUE, session.durationMillis());
+        mode[sessionCount] = session.mode();
+        firstLevel[sessionCount] = levelCount;
+        sessionCount++;
+        for (int i = 0; i < levels; i++) {
+            levelLeader[levelCount] = (short) leaderId(session.leaders()[i]);
+            levelNumber[levelCount] = (short) session.levelNumbers()[i];
+            thinkMillis[levelCount] = session.thinkMillis()[i];
+            outcome[levelCount] = session.outcomes()[i];
+            levelCount++;
+        }
+    }
+
+    private void dropOldest(int sessions) {
+        int levels = firstLevel[sessions];
+        sessionCount -= sessions;
+        System.arraycopy(startedAt, sessions, startedAt, 0, sessionCount);
+        System.arraycopy(score, sessions, score, 0, sessionCount);
+        System.arraycopy(durationMillis, sessions, durationMillis, 0, sessionCount);
+        System.arraycopy(mode, sessions, mode, 0, sessionCount);
+        System.arraycopy(firstLevel, sessions, firstLevel, 0, sessionCount);
+        for (int s = 0; s < sessionCount; s++) {
+            firstLevel[s] -= levels;
+        }
+        levelCount -= levels;
+        System.arraycopy(levelLeader, levels, levelLeader, 0, levelCount);
+        System.arraycopy(levelNumber, levels, levelNumber, 0, levelCount);
+        System.arraycopy(thinkMillis, levels, thinkMillis, 0, levelCount);
+        System.arraycopy(outcome, levels, outcome, 0, levelCount);
+    }
+
+    private void rebuild(List<Session> sessions) {
+        sessionCount = 0;
+        levelCount = 0;
+        for (Session session : sessions) {
+            append(session);
+        }
+        if (sessionCount > MAX_SESSIONS) {
+            dropOldest(sessionCount - MAX_SESSIONS);
+        }
+    }
+
+    private int leaderId(String leader) {
+        Integer id = leaderIds.get(leader);
+        if (id == null) {
+            id = leaders.size();
+            leaders.add(leader);
+            leaderIds.put(leader, id);
+        }
+        return id;
+    }
+
+    /**
+     * Total order used to deduplicate merged sessions: start time first, then the remaining columns.
+     */
+    private static int compare(Session a, Session b) {
+        int c = Long.compare(a.startedAt(), b.startedAt());
+        if (c == 0) c = Long.compare(a.durationMillis(), b.durationMillis());
+        if (c == 0) c = Integer.compare(a.score(), b.score());
+        if (c == 0) c = Byte.compare(a.mode(), b.mode());
+        if (c == 0) c = Arrays.compare(a.thinkMillis(), b.thinkMillis());
+        if (c == 0) c = Arrays.compare(a.outcomes(), b.outcomes());
+        if (c == 0) c = Arrays.compare(a.levelNumbers(), b.levelNumbers());
+        if (c == 0) c = Arrays.compare(a.leaders(), b.leaders());
+        return c;
+    }
+
+    /**
+     * Writes the history as trimmed column arrays, and reads it back.
+     */
+    static class Adapter extends TypeAdapter<SessionHistory> {
+        @Override
+        public void write(JsonWriter out, SessionHistory h) throws IOException {
+            if (h == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("leaders").beginArray();
+            for (String leader : h.leaders) {
+                out.value(leader);
+            }
+            out.endArray();
+            out.name("startedAt").beginArray();
+            for (int s = 0; s < h.sessionCount; s++) out.value(h.startedAt[s]);
+            out.endArray();
+            out.name("score").beginArray();
+            for (int s = 0; s < h.sessionCount; s++) out.value(h.score[s]);
+            out.endArray();
+            out.name("durationMillis").beginArray();
+            for (int s = 0; s < h.sessionCount; s++) out.value(h.durationMillis[s]);
+            out.endArray();
+            out.name("mode").beginArray();
+            for (int s = 0; s < h.sessionCount; s++) out.value(h.mode[s]);
+            out.endArray();
+            out.name("firstLevel").beginArray();
+            for (int s = 0; s < h.sessionCount; s++) out.value(h.firstLevel[s]);
+            out.endArray();
+            out.name("levelLeader").beginArray();
+            for (int i = 0; i < h.levelCount; i++) out.value(h.levelLeader[i]);
+            out.endArray();
+            out.name("levelNumber").beginArray();
+            for (int i = 0; i < h.levelCount; i++) out.value(h.levelNumber[i]);
+            out.endArray();
+            out.name("thinkMillis").beginArray();
+            for (int i = 0; i < h.levelCount; i++) out.value(h.thinkMillis[i]);
+            out.endArray();
+            out.name("outcome").beginArray();
+            for (int i = 0; i < h.levelCount; i++) out.value(h.outcome[i]);
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public SessionHistory read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            SessionHistory h = new SessionHistory();
+            long[] starts = new long[0];
+            int[] scores = new int[0], durations = new int[0], modes = new int[0], firsts = new int[0];
+            int[] leaderIds = new int[0], numbers = new int[0], thinks = new int[0], outcomes = new int[0];
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "leaders" -> {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            h.leaderId(in.nextString());
+                        }
+                        in.endArray();
+                    }
+                    case "startedAt" -> starts = readLongs(in);
+                    case "score" -> scores = readInts(in);
+                    case "durationMillis" -> durations = readInts(in);
+                    case "mode" -> modes = readInts(in);
+                    case "firstLevel" -> firsts = readInts(in);
+                    case "levelLeader" -> leaderIds = readInts(in);
+                    case "levelNumber" -> numbers = readInts(in);
+                    case "thinkMillis" -> thinks = readInts(in);
+                    case "outcome" -> outcomes = readInts(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            int sessions = starts.length;
+            int levels = thinks.length;
+            if (scores.length != sessions || durations.length != sessions || modes.length != sessions || firsts.length != sessions
+                    || leaderIds.length != levels || numbers.length != levels || outcomes.length != levels) {
+                throw new IOException("Session history columns have different lengths");
+            }
+            for (int s = 0; s < sessions; s++) {
+                int from = firsts[s];
+                int to = s + 1 < sessions ? firsts[s + 1] : levels;
+                if (from < 0 || to < from || to > levels) {
+                    throw new IOException("Session history level offsets are out of range");
+                }
+                String[] names = new String[to - from];
+                byte[] outs = new byte[to - from];
+                for (int i = from; i < to; i++) {
+                    if (leaderIds[i] < 0 || leaderIds[i] >= h.leaders.size()) {
+                        throw new IOException("Session history refers to unknown leader id " + leaderIds[i]);
+                    }
+                    names[i - from] = h.leaders.get(leaderIds[i]);
+                    outs[i - from] = (byte) outcomes[i];
+                }
+                h.add(new Session(starts[s], scores[s], durations[s], (byte) modes[s], names,
+                        Arrays.copyOfRange(numbers, from, to), Arrays.copyOfRange(thinks, from, to), outs));
+            }
+            return h;
+        }
+
+        private static int[] readInts(JsonReader in) throws IOException {
+            int[] values = new int[16];
+            int n = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                if (n == values.length) {
+                    values = Arrays.copyOf(values, n * 2);
+                }
+                values[n++] = in.nextInt();
+            }
+            in.endArray();
+            return Arrays.copyOf(values, n);
+        }
+
+        private static long[] readLongs(JsonReader in) throws IOException {
+            long[] values = new long[16];
+            int n = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                if (n == values.length) {
+                    values = Arrays.copyOf(values, n * 2);
+                }
+                values[n++] = in.nextLong();
+            }
+            in.endArray();
+            return Arrays.copyOf(values, n);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.echoesofcommand;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in front of {@link Game#start()}: at most a fixed number of sessions run at once,
+ * a bounded number wait in arrival order, and everything beyond that is turned away with a
+ * "server busy" message instead of piling up behind persistence and rendering.
+ * <p>
+ * Waiting uses a fair semaphore, so sessions are admitted first come, first served. A session that
+ * waits longer than the configured limit is shed as well, which keeps the tail latency of admitted
+ * sessions bounded during bursts.
+ * <p>
+ * Only interactive sessions are admitted here. {@link BatchGrader} runs in its own process and is
+ * already bounded by grading one chunk at a time on the common fork-join pool; shedding its sessions
+ * would turn overload into lost results. A {@link Tournament} plays levels in lockstep against shared
+ * deadlines, so a participant queued behind a slot would miss levels rather than start late; its size
+ * is fixed when participants join.
+ */
+public class SessionScheduler {
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger peakQueued = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitObservedNanos = new AtomicLong();
+
+    /**
+     * A point-in-time view of the scheduler's load.
+     * @param active The number of sessions running now.
+     * @param queued The number of sessions waiting now.
+     * @param peakQueued The largest queue depth seen.
+     * @param admitted The number of sessions admitted so far.
+     * @param rejected The number of sessions shed because the queue was full.
+     * @param timedOut The number of sessions shed after waiting too long.
+     * @param averageWaitMillis The average wait of admitted sessions in milliseconds.
+     * @param maxWaitMillis The longest wait of an admitted session in milliseconds.
+     */
+    public record Stats(int active, int queued, int peakQueued, long admitted, long rejected, long timedOut,
+                        double averageWaitMillis, double maxWaitMillis) {
+    }
+
+    /**
+     * Creates a scheduler.
+     * @param maxConcurrent The number of sessions allowed to run at once.
+     * @param maxQueued The number of sessions allowed to wait for a slot.
+     * @param maxWaitMillis How long a queued session may wait before it is shed.
+     * @throws IllegalArgumentException If a limit is out of range.
+     */
+    public SessionScheduler(int maxConcurrent, int maxQueued, long maxWaitMillis) {
+        if (maxConcurrent < 1 || maxQueued < 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Invalid session limits: " + maxConcurrent + " running, "
+                    + maxQueued + " queued, " + maxWaitMillis + " ms wait");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Runs a session when a slot is free, waiting in line if needed, or tells the player the server is busy.
+     * @param ui The player's UI, used to report shedding.
+     * @param session The session to run, typically {@code game::start}.
+     * @return True if the session ran, false if it was shed.
+     */
+    public boolean run(GameUI ui, Runnable session) {
+        if (!admit()) {
+            ui.displayServerBusy();
+            return false;
+        }
+        try {
+            session.run();
+        } finally {
+            permits.release();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the current load and the totals so far.
+     * @return The statistics.
+     */
+    public Stats stats() {
+        long count = admitted.get();
+        return new Stats(maxConcurrent - permits.availablePermits(), queued.get(), peakQueued.get(), count,
+                rejected.get(), timedOut.get(),
+                count == 0 ? 0.0 : totalWaitNanos.get() / (double) count / 1_000_000.0,
+                maxWaitObservedNanos.get() / 1_000_000.0);
+    }
+
+    private boolean admit() {
+        // Fast path: a free slot and nobody already waiting for one.
+        if (!permits.hasQueuedThreads() && permits.tryAcquire()) {
+            admitted.incrementAndGet();
+            return true;
+        }
+        int depth = queued.incrementAndGet();
+        if (depth > maxQueued) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            return false;
+        }
+        peakQueued.accumulateAndGet(depth, Math::max);
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            queued.decrementAndGet();
+        }
+        if (!acquired) {
+            timedOut.incrementAndGet();
+            return false;
+        }
+        long waited = System.nanoTime() - start;
+        admitted.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitObservedNanos.accumulateAndGet(waited, Math::max);
+        return true;
+    }
+}
@@ -0,0 +1,10 @@
+package com.echoesofcommand;
+
+/**
+ * A player's best result on a ranking, such as a rolling window, a single leader or the all-time board.
+ * @param username The player's username.
+ * @param score The best score.
+ * @param timeMillis The time of that best score in milliseconds.
+ */
+public record Standing(String username, int score, long timeMillis) {
+}
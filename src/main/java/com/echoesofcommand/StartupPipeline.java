@@ -0,0 +1,185 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Runs the startup phases concurrently, each on its own thread as soon as the phases it depends on
+ * are ready, and times each one.
+ * <p>
+ * Each {@link Phase} is a readiness gate for the feature it loads: code that needs the feature calls
+ * {@link Phase#get()}, which waits only for that phase and its dependencies, so the first prompt can
+ * be shown while data is still loading. Once every phase has finished, a one-line timing report is
+ * printed with each phase's duration, the time until everything was ready and, if it came first,
+ * the time of the first prompt.
+ */
+public class StartupPipeline {
+    private final long startNanos = System.nanoTime();
+    private final List<Phase<?>> phases = new CopyOnWriteArrayList<>();
+    private volatile long interactiveNanos = -1;
+    private CompletableFuture<Void> all = CompletableFuture.completedFuture(null);
+
+    /**
+     * One startup phase and its readiness gate.
+     * @param <T> The type of what the phase loads.
+     */
+    public static final class Phase<T> {
+        private final String name;
+        private final CompletableFuture<T> future;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+
+        private Phase(String name, CompletableFuture<T> future) {
+            this.name = name;
+            this.future = future;
+        }
+
+        /**
+         * Waits until the phase is ready and gets its result.
+         * @return What the phase loaded.
+         * @throws IllegalStateException If the phase or one of its dependencies failed.
+         */
+        public T get() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                throw new IllegalStateException("Startup phase " + name + " failed: " + cause.getMessage(), cause);
+            }
+        }
+
+        /**
+         * Checks whether the phase finished successfully, without waiting.
+         * @return True if {@link #get()} would return immediately with a result.
+         */
+        public boolean isReady() {
+            return future.isDone() && !future.isCompletedExceptionally();
+        }
+
+        /**
+         * Gets the phase name.
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets how long the phase ran, excluding time spent waiting for its dependencies.
+         * @return The duration in milliseconds, or -1 while the phase is still running.
+         */
+        public long getDurationMillis() {
+            long finished = finishedNanos;
+            return finished == 0 ? -1 : (finished - startedNanos) / 1_000_000;
+        }
+    }
+
+    /**
+     * Starts a phase with no dependencies.
+     * @param name The phase name, used in the report and the thread name.
+     * @param loader Loads the feature.
+     * @param <T> The type of what the phase loads.
+     * @return The phase.
+     */
+    public <T> Phase<T> start(String name, Supplier<T> loader) {
+        return start(name, List.of(), loader);
+    }
+
+    /**
+     * Starts a phase once its dependencies are ready. If a dependency fails, so does this phase.
+     * @param name The phase name, used in the report and the thread name.
+     * @param dependencies The phases whose results the loader uses.
+     * @param loader Loads the feature; may call {@link Phase#get()} on its dependencies without waiting.
+     * @param <T> The type of what the phase loads.
+     * @return The phase.
+     */
+    public synchronized <T> Phase<T> start(String name, List<Phase<?>> dependencies, Supplier<T> loader) {
+        CompletableFuture<?>[] upstream = dependencies.stream().map(p -> p.future).toArray(CompletableFuture[]::new);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Phase<T> phase = new Phase<>(name, future);
+        CompletableFuture.allOf(upstream).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                phase.startedNanos = phase.finishedNanos = System.nanoTime();
+                future.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+                return;
+            }
+            Thread thread = new Thread(() -> {
+                phase.startedNanos = System.nanoTime();
+                try {
+                    T result = loader.get();
+                    phase.finishedNanos = System.nanoTime();
+                    future.complete(result);
+                } catch (Throwable e) {
+                    phase.finishedNanos = System.nanoTime();
+                    future.completeExceptionally(e);
+                }
+            }, "startup-" + name);
+            thread.setDaemon(true);
+            thread.start();
+        });
+        phases.add(phase);
+        // Any failure is reported by the phase itself, so the report runs once everything has settled either way.
+        all = CompletableFuture.allOf(all, future.handle((result, failure) -> null));
+        return phase;
+    }
+
+    /**
+     * Records that the first prompt is being shown, for the report.
+     */
+    public void markInteractive() {
+        if (interactiveNanos < 0) {
+            interactiveNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Prints the timing report once every phase started so far has finished.
+     * Phases that failed are reported with a warning.
+     */
+    public synchronized void reportWhenDone() {
+        all.thenRun(() -> {
+            for (Phase<?> phase : phases) {
+                if (phase.future.isCompletedExceptionally()) {
+                    try {
+                        phase.get();
+                    } catch (IllegalStateException e) {
+                        System.err.println("Warning: " + e.getMessage());
+                    }
+                }
+            }
+            System.out.println(report());
+        });
+    }
+
+    /**
+     * Builds the timing report for the phases finished so far.
+     * @return A one-line report such as {@code [Startup: players 120 ms, archive 15 ms; ready in 130 ms, first prompt at 4 ms]}.
+     */
+    public String report() {
+        long readyNanos = 0;
+        List<String> parts = new ArrayList<>();
+        for (Phase<?> phase : phases) {
+            long duration = phase.getDurationMillis();
+            String status = duration < 0 ? "loading" : duration + " ms";
+            if (phase.future.isCompletedExceptionally()) {
+                status = "failed";
+            }
+            parts.add(phase.name + " " + status);
+            readyNanos = Math.max(readyNanos, phase.finishedNanos);
+        }
+        StringBuilder report = new StringBuilder("[Startup: ").append(String.join(", ", parts));
+        if (readyNanos > 0) {
+            report.append("; ready in ").append((readyNanos - startNanos) / 1_000_000).append(" ms");
+        }
+        long interactive = interactiveNanos;
+        if (interactive >= 0) {
+            report.append(", first prompt at ").append((interactive - startNanos) / 1_000_000).append(" ms");
+        }
+        return report.append(']').toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.echoesofcommand;
+
+import java.util.List;
+
+/**
+ * Applies finished sessions to player records, saving the player file once per batch
+ * unless persistence is left to the owner, as in bulk grading.
+ */
+public class StatsEventConsumer implements EventPipeline.Consumer {
+    private final PlayerManager players;
+    private final boolean saveEachBatch;
+
+    /**
+     * Creates a consumer that saves the player file after every batch.
+     * @param players The player manager that persists the records.
+     */
+    public StatsEventConsumer(PlayerManager players) {
+        this(players, true);
+    }
+
+    /**
+     * Creates the consumer.
+     * @param players The player manager that persists the records.
+     * @param saveEachBatch Whether to save the player file after every batch.
+     */
+    public StatsEventConsumer(PlayerManager players, boolean saveEachBatch) {
+        this.players = players;
+        this.saveEachBatch = saveEachBatch;
+    }
+
+    @Override
+    public void onBatch(List<GameEvent> batch) {
+        boolean changed = false;
+        for (GameEvent event : batch) {
+            if (event instanceof GameEvent.SessionCompleted session) {
+                PlayerRecord player = session.player();
+                players.recordSession(player, session.score(), session.elapsedMillis(), session.sequential());
+                player.updateStatistics(session.levelsPlayed(), session.correctChoices(), session.elapsedMillis());
+                player.recordHistory(session.history());
+                changed = true;
+            }
+        }
+        if (changed) {
+            players.markChanged();
+        }
+        if (changed && saveEachBatch) {
+            players.save();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolling leaderboard built from time-bucketed best-score aggregates.
+ * <p>
+ * Sessions are folded into a fixed ring of buckets, each holding the best score and time per player
+ * for one bucket interval. A bucket is recycled as soon as the window slides past it, so expired
+ * sessions fall off without ever being rescanned. The merged ranking is cached and only recomputed
+ * when a session is recorded or the window has moved to a new bucket.
+ */
+public class TimeWindowLeaderboard {
+    private long bucketMillis;
+    private Bucket[] buckets;
+    private transient List<Standing> cached;
+    private transient long cachedEpoch = -1;
+
+    /**
+     * Aggregated best results for one bucket interval.
+     */
+    private static class Bucket {
+        long epoch = -1;
+        Map<String, long[]> bests = new HashMap<>();
+    }
+
+    /**
+     * Default constructor for JSON deserialization.
+     */
+    public TimeWindowLeaderboard() {
+    }
+
+    /**
+     * Creates an empty leaderboard for the given window.
+     * @param window The window to cover.
+     */
+    public TimeWindowLeaderboard(LeaderboardWindow window) {
+        this.bucketMillis = window.getBucketMillis();
+        this.buckets = new Bucket[window.getBucketCount()];
+    }
+
+    /**
+     * Records a finished session.
+     * @param username The player's username.
+     * @param score The session score.
+     * @param timeMillis The session duration in milliseconds.
+     * @param timestamp The session end time in milliseconds since epoch.
+     */
+    public synchronized void record(String username, int score, long timeMillis, long timestamp) {
+        long epoch = timestamp / bucketMillis;
+        int slot = (int) (epoch % buckets.length);
+        Bucket bucket = buckets[slot];
+        if (bucket == null || bucket.epoch != epoch) {
+            if (bucket != null && bucket.epoch > epoch) {
+                return;
+            }
+            bucket = new Bucket();
+            bucket.epoch = epoch;
+            buckets[slot] = bucket;
+        }
+        long[] best = bucket.bests.get(username);
+        if (best == null) {
+            bucket.bests.put(username, new long[]{score, timeMillis});
+        } else if (isBetter(score, timeMillis, (int) best[0], best[1])) {
+            best[0] = score;
+            best[1] = timeMillis;
+        }
+        cached = null;
+    }
+
+    /**
+     * Gets the ranking for the window ending at the given time.
+     * @param now The current time in milliseconds since epoch.
+     * @return Standings sorted by score descending, then time ascending.
+     */
+    public synchronized List<Standing> standings(long now) {
+        long currentEpoch = now / bucketMillis;
+        if (cached != null && cachedEpoch == currentEpoch) {
+            return cached;
+        }
+        long oldestEpoch = currentEpoch - buckets.length + 1;
+        Map<String, long[]> merged = new HashMap<>();
+        for (Bucket bucket : buckets) {
+            if (bucket == null || bucket.epoch < oldestEpoch || bucket.epoch > currentEpoch) {
+                continue;
+            }
+            for (Map.Entry<String, long[]> entry : bucket.bests.entrySet()) {
+                long[] best = entry.getValue();
+                merged.merge(entry.getKey(), best,
+                        (a, b) -> isBetter((int) b[0], b[1], (int) a[0], a[1]) ? b : a);
+            }
+        }
+        List<Standing> list = new ArrayList<>(merged.size());
+        for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+            list.add(new Standing(entry.getKey(), (int) entry.getValue()[0], entry.getValue()[1]));
+        }
+        list.sort(Comparator.comparingInt(Standing::score).reversed()
+                .thenComparingLong(Standing::timeMillis)
+                .thenComparing(Standing::username));
+        cached = List.copyOf(list);
+        cachedEpoch = currentEpoch;
+        return cached;
+    }
+
+    private static boolean isBetter(int score, long timeMillis, int bestScore, long bestTimeMillis) {
+        return score > bestScore || (score == bestScore && timeMillis < bestTimeMillis);
+    }
+}
@@ -0,0 +1,267 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size-bounded cache with W-TinyLFU admission and eviction.
+ * <p>
+ * New entries land in a small LRU window (1% of the capacity). An entry leaving the window competes
+ * with the eviction victim of the main region, and only the one that a frequency sketch has seen
+ * more often is kept, so a burst of one-off lookups cannot flush the entries that are used
+ * repeatedly. The main region is a segmented LRU: entries hit a second time move from probation to
+ * a protected segment (80% of the main region). The sketch is a count-min sketch of 4-bit counters
+ * that are halved periodically, so popularity ages out.
+ * <p>
+ * Evicted entries are returned from {@link #put} rather than passed to a callback, so the caller can
+ * write them back without holding the cache lock.
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class TinyLfuCache<K, V> {
+    private final int capacity;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Cache statistics.
+     * @param hits The number of lookups that found an entry.
+     * @param misses The number of lookups that found nothing.
+     * @param evictions The number of entries evicted.
+     * @param size The current number of entries.
+     * @param capacity The maximum number of entries.
+     */
+    public record Stats(long hits, long misses, long evictions, int size, int capacity) {
+        /**
+         * Gets the fraction of lookups that were hits.
+         * @return The hit rate between 0 and 1, or 0 before any lookup.
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Creates a cache.
+     * @param capacity The maximum number of entries, at least 2.
+     * @throws IllegalArgumentException If the capacity is too small.
+     */
+    public TinyLfuCache(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Cache capacity must be at least 2, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = Math.max(1, mainCapacity * 4 / 5);
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    /**
+     * Looks up an entry and records the access.
+     * @param key The key.
+     * @return The value, or null if absent.
+     */
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value == null) {
+            value = protectedSegment.get(key);
+        }
+        if (value == null) {
+            value = probation.remove(key);
+            if (value != null) {
+                promote(key, value);
+            }
+        }
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Inserts or replaces an entry. Only {@link #get} counts as an access, so the usual
+     * miss-then-put sequence is counted once.
+     * @param key The key.
+     * @param value The value.
+     * @return The entries evicted to make room, possibly empty.
+     */
+    public synchronized List<Map.Entry<K, V>> put(K key, V value) {
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return List.of();
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return List.of();
+        }
+        if (probation.containsKey(key)) {
+            probation.put(key, value);
+            return List.of();
+        }
+        window.put(key, value);
+        List<Map.Entry<K, V>> evicted = new ArrayList<>(1);
+        while (window.size() > windowCapacity) {
+            Map.Entry<K, V> candidate = removeEldest(window);
+            admit(candidate, evicted);
+        }
+        evictions += evicted.size();
+        return evicted;
+    }
+
+    /**
+     * Removes an entry.
+     * @param key The key.
+     * @return The removed value, or null if absent.
+     */
+    public synchronized V remove(K key) {
+        V value = window.remove(key);
+        if (value == null) {
+            value = protectedSegment.remove(key);
+        }
+        if (value == null) {
+            value = probation.remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * Gets a snapshot of every cached value.
+     * @return The values, in no particular order.
+     */
+    public synchronized List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        values.addAll(window.values());
+        values.addAll(probation.values());
+        values.addAll(protectedSegment.values());
+        return values;
+    }
+
+    /**
+     * Gets the number of cached entries.
+     * @return The size.
+     */
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * Gets the current statistics.
+     * @return The statistics.
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, size(), capacity);
+    }
+
+    /**
+     * Moves a window candidate into the main region if it is used more often than the main region's victim.
+     */
+    private void admit(Map.Entry<K, V> candidate, List<Map.Entry<K, V>> evicted) {
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        LinkedHashMap<K, V> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        K victimKey = victimSegment.keySet().iterator().next();
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victimKey)) {
+            evicted.add(Map.entry(victimKey, victimSegment.remove(victimKey)));
+            probation.put(candidate.getKey(), candidate.getValue());
+        } else {
+            evicted.add(candidate);
+        }
+    }
+
+    private void promote(K key, V value) {
+        protectedSegment.put(key, value);
+        if (protectedSegment.size() > protectedCapacity) {
+            Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+        Iterator<Map.Entry<K, V>> it = segment.entrySet().iterator();
+        Map.Entry<K, V> eldest = it.next();
+        Map.Entry<K, V> copy = Map.entry(eldest.getKey(), eldest.getValue());
+        it.remove();
+        return copy;
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, sixteen to a long, with four hashed counters per key.
+     * After ten increments per cache slot every counter is halved, which ages old popularity.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int size = Integer.highestOneBit(Math.max(4, capacity - 1)) << 1;
+            this.table = new long[size];
+            this.tableMask = size - 1;
+            this.sampleSize = 10 * capacity;
+        }
+
+        void increment(Object key) {
+            int hash = key.hashCode();
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                long h = mix(hash, i);
+                int index = (int) (h >>> 32) & tableMask;
+                int shift = ((int) h & 15) << 2;
+                long counter = (table[index] >>> shift) & 0xF;
+                if (counter < 15) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = key.hashCode();
+            int min = 15;
+            for (int i = 0; i < 4; i++) {
+                long h = mix(hash, i);
+                int index = (int) (h >>> 32) & tableMask;
+                int shift = ((int) h & 15) << 2;
+                min = Math.min(min, (int) ((table[index] >>> shift) & 0xF));
+            }
+            return min;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions /= 2;
+        }
+
+        private static long mix(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[(row + 1) & 3];
+            return h ^ (h >>> 29);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Live tournament: every participant gets the same level at the same moment, answers against a shared
+ * per-level deadline, and sees the standings before the next level.
+ * <p>
+ * Each level is prepared once and the same {@link Level} instance is handed to every participant's
+ * {@link GameUI}. Participants are served on virtual threads, one task per participant per level, so
+ * a slow player only delays themselves. Standings are a sorted set updated in O(log n) as each answer
+ * arrives; after each level one shared top list is built and ranks are assigned in a single pass, so
+ * broadcasting standings costs O(n) per level regardless of how they are displayed. A participant whose
+ * UI is still busy with a previous level when a new one opens misses that level rather than being
+ * driven from two threads at once. Answers, skips and each participant's finished session are
+ * published to the event pipeline like a regular {@link Game}.
+ * <p>
+ * Each participant's level is settled exactly once: the answering thread and the deadline race for it
+ * with a compare-and-set, and only the winner records and publishes the outcome, so a late answer can
+ * neither add a second event nor move the standings after they were broadcast. After the last level,
+ * participants still busy get a grace period of one level and are then interrupted; the results are
+ * published either way, and the final standings are shown whenever a participant's UI becomes free.
+ */
+public class Tournament {
+    private static final int STANDINGS_SHOWN = 10;
+    /** Level states: waiting for an answer, being recorded by the answering thread, recorded, or skipped. */
+    private static final int OPEN = 0;
+    private static final int CLAIMED = 1;
+    private static final int ANSWERED = 2;
+    private static final int SKIPPED = 3;
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt((Entry e) -> e.score).reversed()
+            .thenComparingLong(e -> e.thinkMillis)
+            .thenComparing(e -> e.username);
+
+    private final List<Level> levels;
+    private final long levelMillis;
+    private final EventPipeline events;
+    private final Map<String, Participant> participants = new ConcurrentHashMap<>();
+    private final TreeSet<Entry> standings = new TreeSet<>(ORDER);
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean finished;
+
+    /**
+     * One participant's running total, as ordered in the standings.
+     */
+    private record Entry(String username, int score, long thinkMillis) {
+    }
+
+    /**
+     * Standings waiting to be shown to a participant once their UI is free.
+     */
+    private record PendingStandings(List<Standing> top, int rank) {
+    }
+
+    private static final class Participant {
+        final PlayerRecord player;
+        final GameUI ui;
+        final String[] leaders;
+        final int[] numbers;
+        final int[] thinkMillis;
+        final byte[] outcomes;
+        final AtomicIntegerArray states;
+        final AtomicBoolean busy = new AtomicBoolean();
+        final AtomicReference<PendingStandings> pending = new AtomicReference<>();
+        Entry entry;
+        Future<?> task;
+        int correct;
+
+        Participant(PlayerRecord player, GameUI ui, int levelCount) {
+            this.player = player;
+            this.ui = ui;
+            this.leaders = new String[levelCount];
+            this.numbers = new int[levelCount];
+            this.thinkMillis = new int[levelCount];
+            this.outcomes = new byte[levelCount];
+            this.states = new AtomicIntegerArray(levelCount);
+            this.entry = new Entry(player.getUsername(), 0, 0);
+        }
+    }
+
+    /**
+     * Creates a tournament over every level of the given leaders.
+     * @param leaders The leaders whose levels are played, in order.
+     * @param levelMillis The time every participant has to answer each level.
+     * @param events The pipeline that receives answers and session results.
+     * @param random Shuffles level and choice order once for everyone, or null to keep content order.
+     */
+    public Tournament(List<Leader> leaders, long levelMillis, EventPipeline events, Random random) {
+        List<Level> prepared = new ArrayList<>();
+        for (Leader leader : leaders) {
+            for (Level level : leader.getLevels()) {
+                prepared.add(new Level(level.getNumber(), level.getDescription(), level.getChoices(),
+                        level.getSummary(), leader.getName()));
+            }
+        }
+        if (random != null) {
+            Collections.shuffle(prepared, random);
+            for (Level level : prepared) {
+                level.randomizeChoices(random);
+            }
+        }
+        this.levels = List.copyOf(prepared);
+        this.levelMillis = levelMillis;
+        this.events = events;
+    }
+
+    /**
+     * Adds a participant before the tournament starts.
+     * @param player The player's record.
+     * @param ui The player's connected UI.
+     * @throws IllegalStateException If the tournament already started or the player already joined.
+     */
+    public void join(PlayerRecord player, GameUI ui) {
+        if (started.get()) {
+            throw new IllegalStateException("Tournament already started");
+        }
+        Participant participant = new Participant(player, ui, levels.size());
+        if (participants.putIfAbsent(player.getUsername(), participant) != null) {
+            throw new IllegalStateException(player.getUsername() + " already joined");
+        }
+        synchronized (standings) {
+            standings.add(participant.entry);
+        }
+    }
+
+    /**
+     * Plays every level with all participants and returns the final standings.
+     * @return Every participant's standing, best first; the time is the total think time.
+     * @throws IllegalStateException If the tournament was already run.
+     */
+    public List<Standing> run() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Tournament already started");
+        }
+        long startedAt = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < levels.size(); i++) {
+                playLevel(executor, i);
+                broadcastStandings();
+            }
+            // Participants still busy see the final standings when their task ends.
+            finished = true;
+            for (Participant participant : participants.values()) {
+                if (!participant.busy.get()) {
+                    executor.submit(() -> showPendingStandings(participant));
+                }
+            }
+            awaitParticipants(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(levelMillis));
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = (System.nanoTime() - startNanos) / 1_000_000;
+        for (Participant p : participants.values()) {
+            int score = p.entry.score();
+            events.publish(new GameEvent.SessionCompleted(p.player, score, levels.size(), p.correct, elapsed, false, null,
+                    new SessionHistory.Session(startedAt, score, elapsed, SessionHistory.MODE_TOURNAMENT,
+                            p.leaders, p.numbers, p.thinkMillis, p.outcomes)));
+        }
+        return topStandings(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the number of participants.
+     * @return The participant count.
+     */
+    public int size() {
+        return participants.size();
+    }
+
+    private void playLevel(ExecutorService executor, int index) {
+        Level level = levels.get(index);
+        long openedNanos = System.nanoTime();
+        long deadlineNanos = openedNanos + TimeUnit.MILLISECONDS.toNanos(levelMillis);
+        List<Participant> free = new ArrayList<>();
+        for (Participant participant : participants.values()) {
+            participant.leaders[index] = level.getLeaderName();
+            participant.numbers[index] = level.getNumber();
+            participant.outcomes[index] = SessionHistory.SKIPPED;
+            participant.thinkMillis[index] = (int) Math.min(Integer.MAX_VALUE, levelMillis);
+            if (participant.busy.compareAndSet(false, true)) {
+                free.add(participant);
+            } else {
+                skip(participant, level, index);
+            }
+        }
+        CountDownLatch answered = new CountDownLatch(free.size());
+        for (Participant participant : free) {
+            participant.task = executor.submit(() -> {
+                try {
+                    showPendingStandings(participant);
+                    participant.ui.displayLevel(level);
+                    int choice = participant.ui.getPlayerChoice();
+                    long now = System.nanoTime();
+                    if (now <= deadlineNanos && participant.states.compareAndSet(index, OPEN, CLAIMED)) {
+                        boolean valid = answer(participant, level, index, choice, (now - openedNanos) / 1_000_000);
+                        participant.states.set(index, valid ? ANSWERED : SKIPPED);
+                    }
+                } finally {
+                    // Free the participant before waking the host, or the next level finds them busy and skips them.
+                    participant.busy.set(false);
+                    answered.countDown();
+                    if (finished) {
+                        showPendingStandings(participant);
+                    }
+                }
+            });
+        }
+        try {
+            answered.await(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Participant participant : free) {
+            skip(participant, level, index);
+        }
+    }
+
+    /**
+     * Settles an open level as skipped, or waits for an answer that already claimed it to be recorded,
+     * so the standings are final when this returns.
+     */
+    private void skip(Participant participant, Level level, int index) {
+        if (participant.states.compareAndSet(index, OPEN, SKIPPED)) {
+            events.publish(new GameEvent.LevelSkipped(participant.player, level, System.currentTimeMillis()));
+            return;
+        }
+        while (participant.states.get(index) == CLAIMED) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Waits until every participant's last task has ended, interrupting those still running at the deadline.
+     */
+    private void awaitParticipants(long deadlineNanos) {
+        for (Participant participant : participants.values()) {
+            while (participant.busy.get() && System.nanoTime() < deadlineNanos) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            if (participant.busy.get()) {
+                participant.task.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Records an in-time answer and publishes it, or publishes a skip for any input other than 1 or 2.
+     * @return True if the input was an answer.
+     */
+    private boolean answer(Participant participant, Level level, int index, int choice, long thinkMillis) {
+        participant.thinkMillis[index] = (int) Math.min(Integer.MAX_VALUE, thinkMillis);
+        if (choice != 1 && choice != 2) {
+            // Like a regular game, any other input skips the level.
+            events.publish(new GameEvent.LevelSkipped(participant.player, level, System.currentTimeMillis()));
+            return false;
+        }
+        Choice chosen = level.getChoices().get(choice - 1);
+        boolean correct = chosen.isHistorical();
+        participant.outcomes[index] = correct ? SessionHistory.CORRECT : SessionHistory.INCORRECT;
+        if (correct) {
+            participant.correct++;
+        }
+        synchronized (standings) {
+            standings.remove(participant.entry);
+            participant.entry = new Entry(participant.entry.username(),
+                    participant.entry.score() + (correct ? 1 : 0), participant.entry.thinkMillis() + thinkMillis);
+            standings.add(participant.entry);
+        }
+        events.publish(new GameEvent.LevelAnswered(participant.player, level, level.contentIndexOf(chosen), correct,
+                System.currentTimeMillis()));
+        return true;
+    }
+
+    /**
+     * Builds the shared top list once and gives every participant their rank in one pass over the standings.
+     */
+    private void broadcastStandings() {
+        List<Standing> top = topStandings(STANDINGS_SHOWN);
+        synchronized (standings) {
+            int rank = 0;
+            for (Entry entry : standings) {
+                Participant participant = participants.get(entry.username());
+                participant.pending.set(new PendingStandings(top, ++rank));
+            }
+        }
+    }
+
+    private void showPendingStandings(Participant participant) {
+        PendingStandings standing = participant.pending.getAndSet(null);
+        if (standing != null) {
+            participant.ui.displayTournamentStandings(standing.top(), standing.rank(), participants.size());
+        }
+    }
+
+    private List<Standing> topStandings(int limit) {
+        List<Standing> top = new ArrayList<>(Math.min(limit, participants.size()));
+        synchronized (standings) {
+            for (Entry entry : standings) {
+                if (top.size() == limit) {
+                    break;
+                }
+                top.add(new Standing(entry.username(), entry.score(), entry.thinkMillis()));
+            }
+        }
+        return List.copyOf(top);
+    }
+}
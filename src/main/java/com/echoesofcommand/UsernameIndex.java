@@ -0,0 +1,213 @@
+package com.echoesofcommand;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sorted, case-insensitive index of usernames for prefix and range lookups, such as autocomplete.
+ * <p>
+ * Most names live in two parallel sorted arrays, one of lower-cased keys and one of the usernames
+ * as registered; for names that are already lower case both arrays point at the same string, so an
+ * entry costs two references. New names go into a small sorted buffer that is merged into the arrays
+ * once it grows past an eighth of them, which keeps inserts cheap on average, and a bulk load sorts
+ * once and merges once. A lookup binary-searches the arrays, walks the buffer from the same point,
+ * and merges the two until it has enough names, so it touches only the names it returns. Usernames
+ * that differ only in case are kept as separate entries, ordered by their registered spelling.
+ */
+public class UsernameIndex {
+    private static final int MIN_BUFFER = 1024;
+    /** Separates the lower-cased key from the username in buffer keys; sorts before every other character. */
+    private static final char SEPARATOR = '\0';
+
+    private String[] keys = new String[0];
+    private String[] names = new String[0];
+    private final TreeMap<String, String> buffer = new TreeMap<>();
+
+    /**
+     * Adds a username if it is not indexed yet.
+     * @param username The username as registered.
+     */
+    public synchronized void add(String username) {
+        String key = fold(username);
+        if (arrayIndexOf(key, username) >= 0 || buffer.putIfAbsent(key + SEPARATOR + username, username) != null) {
+            return;
+        }
+        if (buffer.size() > Math.max(MIN_BUFFER, keys.length / 8)) {
+            mergeBuffer();
+        }
+    }
+
+    /**
+     * Adds many usernames with one sort and one merge, which is much faster than adding them one at a time.
+     * Usernames already indexed are skipped.
+     * @param usernames The usernames as registered.
+     */
+    public synchronized void addAll(Collection<String> usernames) {
+        String[] addedNames = usernames.toArray(new String[0]);
+        String[] addedKeys = new String[addedNames.length];
+        Integer[] order = new Integer[addedNames.length];
+        for (int i = 0; i < addedNames.length; i++) {
+            addedKeys[i] = fold(addedNames[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compare(addedKeys[a], addedNames[a], addedKeys[b], addedNames[b]));
+        String[] sortedKeys = new String[order.length];
+        String[] sortedNames = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = addedKeys[order[i]];
+            sortedNames[i] = addedNames[order[i]];
+        }
+        mergeBuffer();
+        merge(sortedKeys, sortedNames);
+    }
+
+    /**
+     * Gets the number of indexed usernames.
+     * @return The count.
+     */
+    public synchronized int size() {
+        return keys.length + buffer.size();
+    }
+
+    /**
+     * Finds usernames that start with a prefix, ignoring case.
+     * @param prefix The prefix; empty matches every username.
+     * @param limit The maximum number of usernames.
+     * @return The matching usernames in case-insensitive order.
+     */
+    public List<String> withPrefix(String prefix, int limit) {
+        String from = fold(prefix);
+        return collect(from, null, from, limit);
+    }
+
+    /**
+     * Finds usernames in a range, ignoring case.
+     * @param from The inclusive lower bound.
+     * @param to The exclusive upper bound, or null for no upper bound.
+     * @param limit The maximum number of usernames.
+     * @return The usernames in range in case-insensitive order.
+     */
+    public List<String> range(String from, String to, int limit) {
+        return collect(fold(from), to == null ? null : fold(to), null, limit);
+    }
+
+    private synchronized List<String> collect(String from, String to, String prefix, int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 64));
+        int i = lowerBound(from);
+        Iterator<Map.Entry<String, String>> pending = buffer.tailMap(from, true).entrySet().iterator();
+        Map.Entry<String, String> next = pending.hasNext() ? pending.next() : null;
+        while (result.size() < limit) {
+            String arrayKey = i < keys.length ? keys[i] : null;
+            String bufferKey = next != null ? next.getKey().substring(0, next.getKey().indexOf(SEPARATOR)) : null;
+            boolean fromArray;
+            if (arrayKey == null && bufferKey == null) {
+                break;
+            } else if (arrayKey == null) {
+                fromArray = false;
+            } else if (bufferKey == null) {
+                fromArray = true;
+            } else {
+                fromArray = compare(arrayKey, names[i], bufferKey, next.getValue()) < 0;
+            }
+            String key = fromArray ? arrayKey : bufferKey;
+            if ((to != null && key.compareTo(to) >= 0) || (prefix != null && !key.startsWith(prefix))) {
+                break;
+            }
+            if (fromArray) {
+                result.add(names[i++]);
+            } else {
+                result.add(next.getValue());
+                next = pending.hasNext() ? pending.next() : null;
+            }
+        }
+        return result;
+    }
+
+    private void mergeBuffer() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        String[] addedKeys = new String[buffer.size()];
+        String[] addedNames = new String[buffer.size()];
+        int n = 0;
+        for (String username : buffer.values()) {
+            addedKeys[n] = fold(username);
+            addedNames[n++] = username;
+        }
+        buffer.clear();
+        merge(addedKeys, addedNames);
+    }
+
+    /**
+     * Merges sorted names into the arrays in one linear pass, dropping duplicates.
+     */
+    private void merge(String[] addedKeys, String[] addedNames) {
+        String[] mergedKeys = new String[keys.length + addedKeys.length];
+        String[] mergedNames = new String[mergedKeys.length];
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while (i < keys.length || j < addedKeys.length) {
+            boolean fromArray = j == addedKeys.length
+                    || (i < keys.length && compare(keys[i], names[i], addedKeys[j], addedNames[j]) <= 0);
+            String key = fromArray ? keys[i] : addedKeys[j];
+            String name = fromArray ? names[i++] : addedNames[j++];
+            if (out > 0 && mergedNames[out - 1].equals(name)) {
+                continue;
+            }
+            mergedKeys[out] = key;
+            mergedNames[out++] = name;
+        }
+        keys = out == mergedKeys.length ? mergedKeys : Arrays.copyOf(mergedKeys, out);
+        names = out == mergedNames.length ? mergedNames : Arrays.copyOf(mergedNames, out);
+    }
+
+    private int arrayIndexOf(String key, String username) {
+        int low = 0;
+        int high = keys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = compare(keys[mid], names[mid], key, username);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first array position whose key is at least the given key.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(String key, String username, String otherKey, String otherUsername) {
+        int c = key.compareTo(otherKey);
+        return c != 0 ? c : username.compareTo(otherUsername);
+    }
+
+    private static String fold(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
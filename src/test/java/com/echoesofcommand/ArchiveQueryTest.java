@@ -0,0 +1,27 @@
+package com.echoesofcommand;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The regular expression time limit is shared by everything one query matches, so a query cannot
+ * stretch it by spreading slow matches over many levels.
+ */
+class ArchiveQueryTest {
+    @Test
+    void matchesWithinTheDeadline() {
+        ArchiveQuery query = ArchiveQuery.parse("/caes.r/");
+
+        assertTrue(query.matchesText("Julius Caesar", null, query.matchDeadline()));
+    }
+
+    @Test
+    void failsOnceTheQueryDeadlineHasPassed() {
+        ArchiveQuery query = ArchiveQuery.parse("/caes.r/");
+        long passed = System.nanoTime() - 1;
+
+        assertThrows(IllegalArgumentException.class, () -> query.matchesText("Julius Caesar", null, passed));
+    }
+}
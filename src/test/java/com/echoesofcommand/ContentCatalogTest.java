@@ -0,0 +1,31 @@
+package com.echoesofcommand;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Content must be rejected at load when the archive could not store its level numbers.
+ */
+class ContentCatalogTest {
+    @Test
+    void acceptsTheLargestStorableLevelNumber() {
+        assertDoesNotThrow(() -> catalog(Level.MAX_NUMBER).validate());
+    }
+
+    @Test
+    void rejectsLevelNumbersTheArchiveCannotStore() {
+        assertThrows(IllegalStateException.class, () -> catalog(Level.MAX_NUMBER + 1).validate());
+        assertThrows(IllegalStateException.class, () -> catalog(-1).validate());
+    }
+
+    private static ContentCatalog catalog(int number) {
+        Level level = new Level(number, "Level " + number,
+                new ArrayList<>(List.of(new Choice("Yes", true), new Choice("No", false))), "Summary", null);
+        return new ContentCatalog(List.of(new Leader("Julius Caesar", "Backstory", new ArrayList<>(List.of(level)))));
+    }
+}
@@ -0,0 +1,57 @@
+package com.echoesofcommand;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A damaged snapshot must read as no snapshot, so startup rebuilds the indexes instead of failing.
+ */
+class IndexSnapshotTest {
+    /** Offset of the username count: magic, version and replay generation come first. */
+    private static final int USERNAME_COUNT_OFFSET = 4 + 4 + 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTrips() throws IOException {
+        Path file = directory.resolve("index.bin");
+        snapshot().write(file);
+
+        assertEquals(snapshot(), IndexSnapshot.read(file));
+    }
+
+    @Test
+    void negativeCountReadsAsNoSnapshot() throws IOException {
+        assertNull(IndexSnapshot.read(withUsernameCount(-7)));
+    }
+
+    @Test
+    void countLargerThanTheFileReadsAsNoSnapshot() throws IOException {
+        assertNull(IndexSnapshot.read(withUsernameCount(Integer.MAX_VALUE)));
+    }
+
+    private Path withUsernameCount(int count) throws IOException {
+        Path file = directory.resolve("index.bin");
+        snapshot().write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(USERNAME_COUNT_OFFSET, count);
+        Files.write(file, bytes);
+        return file;
+    }
+
+    private static IndexSnapshot snapshot() {
+        Standing alice = new Standing("alice", 7, 1200);
+        return new IndexSnapshot(3, List.of("alice", "bob"), Map.of("Julius Caesar", List.of(alice)), List.of(alice));
+    }
+}
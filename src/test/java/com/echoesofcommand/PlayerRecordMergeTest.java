@@ -0,0 +1,81 @@
+package com.echoesofcommand;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two nodes exchanging snapshots of the same player must converge on the same totals, counting every
+ * node's contribution once.
+ */
+class PlayerRecordMergeTest {
+    private static final Gson GSON = new Gson();
+
+    @Test
+    void legacyTotalsFromTwoNodesAddUp() {
+        PlayerRecord a = legacy(10);
+        PlayerRecord b = legacy(5);
+
+        exchange(a, b);
+
+        assertEquals(15, a.getTotalLevelsPlayed());
+        assertEquals(15, b.getTotalLevelsPlayed());
+    }
+
+    @Test
+    void repeatedExchangesDoNotDoubleCount() {
+        PlayerRecord a = legacy(10);
+        PlayerRecord b = legacy(5);
+
+        exchange(a, b);
+        exchange(a, b);
+        exchange(b, a);
+
+        assertEquals(15, a.getTotalLevelsPlayed());
+        assertEquals(15, b.getTotalLevelsPlayed());
+    }
+
+    @Test
+    void sessionsOnBothNodesConverge() {
+        PlayerRecord a = legacy(10);
+        PlayerRecord b = legacy(5);
+        exchange(a, b);
+
+        a.updateStatistics("A", 3, 2, 3000);
+        b.updateStatistics("B", 4, 1, 4000);
+        exchange(a, b);
+
+        assertEquals(22, a.getTotalLevelsPlayed());
+        assertEquals(22, b.getTotalLevelsPlayed());
+        assertEquals(a.getTotalCorrectChoices(), b.getTotalCorrectChoices());
+    }
+
+    @Test
+    void unseededRemoteTotalsAreNotTakenAsTheReceiversOwn() {
+        PlayerRecord b = legacy(5);
+
+        b.merge("B", legacy(10));
+
+        assertEquals(5, b.getTotalLevelsPlayed());
+    }
+
+    /**
+     * Sends each node's snapshot to the other, as one sync round does.
+     */
+    private static void exchange(PlayerRecord a, PlayerRecord b) {
+        PlayerRecord fromA = a.snapshot("A");
+        PlayerRecord fromB = b.snapshot("B");
+        a.merge("A", fromB);
+        b.merge("B", fromA);
+    }
+
+    /**
+     * A record as written before counters existed, holding only plain totals.
+     */
+    private static PlayerRecord legacy(int levelsPlayed) {
+        return GSON.fromJson("{\"username\":\"alice\",\"totalLevelsPlayed\":" + levelsPlayed
+                + ",\"totalCorrectChoices\":" + levelsPlayed / 2 + ",\"totalTimeMillis\":" + levelsPlayed * 1000
+                + ",\"loginHistory\":[]}", PlayerRecord.class);
+    }
+}
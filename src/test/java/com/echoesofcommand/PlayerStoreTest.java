@@ -0,0 +1,39 @@
+package com.echoesofcommand;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Any username must be storable, however long, without one player's file standing in for another's.
+ */
+class PlayerStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesUsernamesLongerThanAFileName() {
+        PlayerStore store = new PlayerStore(directory);
+        String username = "ж".repeat(400);
+
+        store.write(new PlayerRecord(username));
+
+        assertEquals(username, store.load(username).getUsername());
+    }
+
+    @Test
+    void longUsernamesSharingAPrefixStayApart() {
+        PlayerStore store = new PlayerStore(directory);
+        String prefix = "a".repeat(300);
+
+        store.write(new PlayerRecord(prefix + "1"));
+
+        assertTrue(store.contains(prefix + "1"));
+        assertFalse(store.contains(prefix + "2"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.echoesofcommand;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Level numbers are kept in 16 bits, so a history must keep every valid one exactly and refuse the rest
+ * rather than store a different level.
+ */
+class SessionHistoryTest {
+    @Test
+    void keepsTheLargestValidLevelNumber() {
+        SessionHistory history = new SessionHistory();
+
+        history.add(session(Level.MAX_NUMBER));
+
+        assertEquals(Level.MAX_NUMBER, history.sessions().get(0).levelNumbers()[0]);
+    }
+
+    @Test
+    void rejectsLevelNumbersThatWouldBeNarrowed() {
+        SessionHistory history = new SessionHistory();
+
+        assertThrows(IllegalArgumentException.class, () -> history.add(session(Level.MAX_NUMBER + 1)));
+        assertEquals(0, history.size());
+    }
+
+    private static SessionHistory.Session session(int levelNumber) {
+        return new SessionHistory.Session(1_000L, 1, 5_000L, SessionHistory.MODE_SINGLE, new String[] {"Julius Caesar"},
+                new int[] {levelNumber}, new int[] {2_000}, new byte[] {SessionHistory.CORRECT});
+    }
+}
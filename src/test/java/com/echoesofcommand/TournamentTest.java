@@ -0,0 +1,41 @@
+package com.echoesofcommand;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Every participant's level must produce exactly one answer or skip event, whatever they enter.
+ */
+class TournamentTest {
+    @Test
+    void inTimeInputOtherThanAChoiceIsPublishedAsASkip() {
+        List<GameEvent> events = new ArrayList<>();
+        EventPipeline pipeline = new EventPipeline(64, EventPipeline.Backpressure.BLOCK,
+                List.of(new EventPipeline.Named("test", batch -> {
+                    synchronized (events) {
+                        events.addAll(batch);
+                    }
+                })));
+        Tournament tournament = new Tournament(List.of(leader()), 5_000, pipeline, null);
+        tournament.join(new PlayerRecord("alice"), new ScriptedUI(new int[] {7, 1}));
+
+        tournament.run();
+        pipeline.close();
+
+        assertEquals(List.of(GameEvent.LevelSkipped.class, GameEvent.LevelAnswered.class, GameEvent.SessionCompleted.class),
+                events.stream().map(Object::getClass).toList());
+    }
+
+    private static Leader leader() {
+        List<Level> levels = new ArrayList<>();
+        for (int number = 1; number <= 2; number++) {
+            levels.add(new Level(number, "Level " + number,
+                    new ArrayList<>(List.of(new Choice("Yes", true), new Choice("No", false))), "Summary", null));
+        }
+        return new Leader("Julius Caesar", "Backstory", levels);
+    }
+}